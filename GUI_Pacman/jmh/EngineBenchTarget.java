@@ -0,0 +1,95 @@
+import bench.EngineTarget;
+
+import java.util.SplittableRandom;
+
+public class EngineBenchTarget implements EngineTarget {
+
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+    private static final int[] ROW_STEPS = {-1, 0, 1, 0};
+    private static final int[] COL_STEPS = {0, 1, 0, -1};
+
+    private GameEngine engine;
+    private Board board;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int turn = 0;
+
+    private FlowField flowField;
+    private int[] ghostRows;
+    private int[] ghostCols;
+    private int pacmanRow;
+    private int pacmanCol;
+
+    @Override
+    public void setUp(int size, int ghosts) {
+        engine = new GameEngine(size, ghosts);
+        // A new engine is in its scatter window, where ghosts skip the flow
+        // field; measure the chase path instead.
+        while (engine.getGhostMode() != GhostMode.CHASE) {
+            engine.skipTicks(1);
+        }
+        board = new Board(size, size);
+        for (int i = 0; i < board.size(); i++) {
+            board.setAt(i, random.nextInt(5) == 0 ? Cell.WALL : Cell.EMPTY);
+        }
+        ghostRows = new int[ghosts];
+        ghostCols = new int[ghosts];
+        for (int i = 0; i < ghosts; i++) {
+            int index = board.pickEmpty(random);
+            ghostRows[i] = board.rowOf(index);
+            ghostCols[i] = board.colOf(index);
+        }
+        int index = board.pickEmpty(random);
+        pacmanRow = board.rowOf(index);
+        pacmanCol = board.colOf(index);
+        flowField = new FlowField(board);
+        flowField.update(pacmanRow, pacmanCol, ghostRows, ghostCols, ghosts);
+    }
+
+    @Override
+    public void moveGhosts() {
+        engine.moveGhosts();
+    }
+
+    /**
+     * Turns every call so Pacman keeps moving instead of standing at a wall.
+     */
+    @Override
+    public int movePacman() {
+        engine.setDirection(DIRECTIONS[turn++ & 3]);
+        engine.updatePacmanPosition();
+        return engine.getPacmanRow();
+    }
+
+    /**
+     * Moves Pacman one cell on the walled board and brings the ghosts' flow
+     * field up to date, the work of a chase tick.
+     */
+    @Override
+    public int chase() {
+        int step = random.nextInt(4);
+        int row = pacmanRow + ROW_STEPS[step];
+        int col = pacmanCol + COL_STEPS[step];
+        if (board.contains(row, col) && board.get(row, col) != Cell.WALL) {
+            pacmanRow = row;
+            pacmanCol = col;
+        }
+        flowField.update(pacmanRow, pacmanCol, ghostRows, ghostCols, ghostRows.length);
+        return flowField.distance(ghostRows[0], ghostCols[0]);
+    }
+
+    /**
+     * The placement step of placePacman and spawnPowerUp: picks a random empty
+     * cell, fills it and frees it again, so the board keeps the same density
+     * for the whole run. Calling spawnPowerUp directly would fill the board
+     * within one iteration and then only measure the early return.
+     */
+    @Override
+    public int placeRandom() {
+        int index = board.pickEmpty(random);
+        if (index >= 0) {
+            board.setAt(index, Cell.EXTRA_SCORE);
+            board.setAt(index, Cell.EMPTY);
+        }
+        return index;
+    }
+}
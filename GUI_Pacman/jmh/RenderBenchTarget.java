@@ -0,0 +1,59 @@
+import bench.RenderTarget;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+public class RenderBenchTarget implements RenderTarget {
+
+    private GameEngine engine;
+    private BoardView view;
+    private BufferedImage image;
+    private int cellSize;
+    private int viewportColumns;
+    private int viewportRows;
+    private int scroll = 0;
+
+    @Override
+    public void setUp(int size, int cellSize, int viewportWidth, int viewportHeight) {
+        this.cellSize = cellSize;
+        engine = new GameEngine(size);
+        view = new BoardView(engine, cellSize);
+        view.setSize(view.getPreferredSize());
+        image = new BufferedImage(viewportWidth, viewportHeight, BufferedImage.TYPE_INT_RGB);
+        viewportColumns = Math.min(size, viewportWidth / cellSize);
+        viewportRows = Math.min(size, viewportHeight / cellSize);
+    }
+
+    @Override
+    public void paintTiles() {
+        Graphics2D g = image.createGraphics();
+        Direction direction = engine.getPacmanDirection();
+        for (int row = 0; row < viewportRows; row++) {
+            for (int col = 0; col < viewportColumns; col++) {
+                TilePainter.paintTile(g, engine.getCell(row, col), direction, col * cellSize, row * cellSize, cellSize);
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * Paints the viewport one column further along the diagonal each call,
+     * wrapping at the board edge, as if the window were scrolling.
+     */
+    @Override
+    public void paintViewport() {
+        int maxScroll = Math.max(1, Math.min(engine.getRowCount() - viewportRows, engine.getColumnCount() - viewportColumns));
+        int offset = (scroll++ % maxScroll) * cellSize;
+        Graphics2D g = image.createGraphics();
+        g.translate(-offset, -offset);
+        g.setClip(offset, offset, image.getWidth(), image.getHeight());
+        view.paint(g);
+        g.dispose();
+    }
+
+    @Override
+    public void redrawRun() {
+        int row = scroll++ % viewportRows;
+        view.cellsChanged(row, 0, viewportColumns - 1);
+    }
+}
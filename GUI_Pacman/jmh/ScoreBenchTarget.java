@@ -0,0 +1,75 @@
+import bench.ScoreTarget;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public class ScoreBenchTarget implements ScoreTarget {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private Path directory;
+    private ScoreStore store;
+    private LeaderboardIndex leaderboard;
+
+    @Override
+    public void setUp(Path directory, int records) throws IOException {
+        this.directory = directory;
+        store = new ScoreStore(directory.resolve(ScoreStore.DEFAULT_PATH));
+        store.recover();
+        ArrayList<CompletableFuture<Long>> pending = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            pending.add(store.appendAsync(nextPlayer()));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        leaderboard = LeaderboardIndex.open(store);
+    }
+
+    private Player nextPlayer() {
+        return new Player("player" + random.nextInt(1000), random.nextInt(10000));
+    }
+
+    @Override
+    public long append() throws IOException {
+        return store.append(nextPlayer());
+    }
+
+    @Override
+    public long appendBatch(int count) throws Exception {
+        CompletableFuture<Long> last = null;
+        for (int i = 0; i < count; i++) {
+            last = store.appendAsync(nextPlayer());
+        }
+        return last.get();
+    }
+
+    @Override
+    public int readAll() throws IOException {
+        return store.readAll().size();
+    }
+
+    @Override
+    public long openLeaderboard() throws IOException {
+        return LeaderboardIndex.open(store).getTotal();
+    }
+
+    @Override
+    public int readTopPage() throws IOException {
+        return store.readAt(leaderboard.offsets(0, PAGE_SIZE)).size();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
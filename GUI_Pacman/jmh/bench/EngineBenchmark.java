@@ -0,0 +1,52 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine steps the game loop runs every few ticks. The engine is rebuilt for
+ * every iteration so ghosts do not end up all parked next to Pacman.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EngineBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int boardSize;
+
+    @Param({"5", "500"})
+    public int ghosts;
+
+    private EngineTarget target;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        target = Targets.create("EngineBenchTarget", EngineTarget.class);
+        target.setUp(boardSize, ghosts);
+    }
+
+    @Benchmark
+    public void moveGhosts() {
+        target.moveGhosts();
+    }
+
+    @Benchmark
+    public int movePacman() {
+        return target.movePacman();
+    }
+
+    @Benchmark
+    public int chase() {
+        return target.chase();
+    }
+
+    @Benchmark
+    public int placeRandom() {
+        return target.placeRandom();
+    }
+}
@@ -0,0 +1,14 @@
+package bench;
+
+public interface EngineTarget {
+
+    void setUp(int size, int ghosts);
+
+    void moveGhosts();
+
+    int movePacman();
+
+    int chase();
+
+    int placeRandom();
+}
@@ -0,0 +1,46 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board painting into an offscreen image, headless. {@code paintTiles} is the
+ * uncached per-tile path, {@code paintViewport} the chunk-cached path the
+ * window uses while the viewport scrolls across the board, and
+ * {@code redrawRun} the per-tick update of one changed run of cells.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int boardSize;
+
+    private RenderTarget target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = Targets.create("RenderBenchTarget", RenderTarget.class);
+        target.setUp(boardSize, 20, 800, 600);
+    }
+
+    @Benchmark
+    public void paintTiles() {
+        target.paintTiles();
+    }
+
+    @Benchmark
+    public void paintViewport() {
+        target.paintViewport();
+    }
+
+    @Benchmark
+    public void redrawRun() {
+        target.redrawRun();
+    }
+}
@@ -0,0 +1,12 @@
+package bench;
+
+public interface RenderTarget {
+
+    void setUp(int size, int cellSize, int viewportWidth, int viewportHeight);
+
+    void paintTiles();
+
+    void paintViewport();
+
+    void redrawRun();
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score persistence against a fresh score file holding {@code records}
+ * entries: committing one score, committing a batch of 64 together, reading
+ * the whole file, opening the leaderboard as the game-over dialog and the
+ * high score window do, and loading one page of the top scores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int records;
+
+    private Path directory;
+    private ScoreTarget target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("score-bench");
+        target = Targets.create("ScoreBenchTarget", ScoreTarget.class);
+        target.setUp(directory, records);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        target.tearDown();
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        return target.append();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public long appendBatch() throws Exception {
+        return target.appendBatch(64);
+    }
+
+    @Benchmark
+    public int readAll() throws IOException {
+        return target.readAll();
+    }
+
+    @Benchmark
+    public long openLeaderboard() throws IOException {
+        return target.openLeaderboard();
+    }
+
+    @Benchmark
+    public int readTopPage() throws IOException {
+        return target.readTopPage();
+    }
+}
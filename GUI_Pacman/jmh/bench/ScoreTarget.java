@@ -0,0 +1,21 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface ScoreTarget {
+
+    void setUp(Path directory, int records) throws IOException;
+
+    long append() throws IOException;
+
+    long appendBatch(int count) throws Exception;
+
+    int readAll() throws IOException;
+
+    long openLeaderboard() throws IOException;
+
+    int readTopPage() throws IOException;
+
+    void tearDown() throws IOException;
+}
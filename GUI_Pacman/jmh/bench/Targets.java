@@ -0,0 +1,21 @@
+package bench;
+
+/**
+ * The game classes live in the default package, which code in a named
+ * package cannot reference, while JMH refuses benchmarks in the default
+ * package. Each benchmark therefore talks to a small target interface that a
+ * default-package class implements; this loads that class by name.
+ */
+final class Targets {
+
+    private Targets() {
+    }
+
+    static <T> T create(String className, Class<T> type) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create benchmark target " + className, e);
+        }
+    }
+}
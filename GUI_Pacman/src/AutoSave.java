@@ -0,0 +1,463 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Periodic autosave that writes only what changed: a background thread
+ * appends each checkpoint's engine state and changed terrain cells to
+ * {@code deltas-<n>.log}, and every {@code deltasPerBase} checkpoints writes a
+ * full {@link Snapshot} as {@code base-<n>.snapshot} instead.
+ */
+public class AutoSave {
+
+    public static final String DIRECTORY = "autosave";
+
+    private static final String BASE_PREFIX = "base-";
+    private static final String LOG_PREFIX = "deltas-";
+    private static final String LOG_EXTENSION = ".log";
+    private static final int RECORD_HEADER_BYTES = 12;
+    static final int COPY_CELLS_PER_TICK = 1 << 20;
+
+    private static final Checkpoint STOP = new Checkpoint(-1, 0, null, null);
+
+    private static class Checkpoint {
+        final long sequence;
+        final long clockNanos;
+        final byte[] state;
+        // The whole terrain, on the first checkpoint only.
+        final byte[] terrain;
+        int[] cells = new int[16];
+        byte[] values = new byte[16];
+        int changes = 0;
+
+        Checkpoint(long sequence, long clockNanos, byte[] state, byte[] terrain) {
+            this.sequence = sequence;
+            this.clockNanos = clockNanos;
+            this.state = state;
+            this.terrain = terrain;
+        }
+
+        void add(int cell, byte value) {
+            if (changes == cells.length) {
+                cells = Arrays.copyOf(cells, changes * 2);
+                values = Arrays.copyOf(values, changes * 2);
+            }
+            cells[changes] = cell;
+            values[changes] = value;
+            changes++;
+        }
+    }
+
+    private final GameEngine engine;
+    private final Path directory;
+    private final long intervalTicks;
+    private final int deltasPerBase;
+    private final LinkedBlockingQueue<Checkpoint> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private long lastCheckpointTick;
+    private long sequence = 0;
+    private boolean closed = false;
+    private volatile boolean discard = false;
+
+    // The game thread copies the terrain a slice per tick, so a large board
+    // does not stall it, and hands the copy to the writer with the first
+    // checkpoint once it is complete.
+    private byte[] terrainCopy;
+    private int copiedCells = 0;
+
+    // Owned by the writer thread.
+    private byte[] shadowTerrain;
+    private byte[] previousState;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[4096];
+    private FileChannel log;
+    private long baseSequence = -1;
+    private int deltasSinceBase = 0;
+
+    /**
+     * Starts autosaving {@code engine} into {@code directory}. The first
+     * checkpoint is taken now.
+     */
+    public AutoSave(GameEngine engine, Path directory, long clockNanos, long intervalTicks, int deltasPerBase) throws IOException {
+        this.engine = engine;
+        this.directory = directory;
+        this.intervalTicks = intervalTicks;
+        this.deltasPerBase = deltasPerBase;
+        Files.createDirectories(directory);
+        // Number on from an autosave this game may have been recovered from,
+        // so that one stays the newest until the new base is written.
+        long[] existing = sequences(directory, BASE_PREFIX, Snapshot.EXTENSION);
+        sequence = existing.length > 0 ? existing[existing.length - 1] : -1;
+
+        engine.journalTerrain();
+        engine.drainTerrainJournal((row, firstCol, lastCol) -> {
+        });
+        terrainCopy = new byte[engine.terrain().length];
+        copyTerrain();
+
+        writer = new Thread(this::writeLoop, "autosave-writer");
+        writer.setDaemon(true);
+        writer.start();
+        checkpoint(clockNanos);
+    }
+
+    /**
+     * {@code saves/autosave/<seed in hex>}, the directory for one game.
+     */
+    public static Path directoryFor(long seed) {
+        return Paths.get(Snapshot.DIRECTORY, DIRECTORY, Long.toHexString(seed));
+    }
+
+    /**
+     * Takes a checkpoint if an interval has passed since the last one, or if
+     * the terrain copy has just been completed. Call on the game thread after
+     * ticking.
+     */
+    public void tick(long clockNanos) {
+        if (closed) {
+            return;
+        }
+        if ((terrainCopy != null && copyTerrain()) || engine.getTicks() - lastCheckpointTick >= intervalTicks) {
+            checkpoint(clockNanos);
+        }
+    }
+
+    /**
+     * Queues a checkpoint for the writer. Until the terrain copy is complete
+     * nothing can be written, and only the changed cells are brought into the
+     * copy.
+     */
+    public void checkpoint(long clockNanos) {
+        lastCheckpointTick = engine.getTicks();
+        byte[] terrain = engine.terrain();
+        int columns = engine.getColumnCount();
+        if (terrainCopy != null) {
+            engine.drainTerrainJournal((row, firstCol, lastCol) -> {
+                int cell = row * columns + firstCol;
+                System.arraycopy(terrain, cell, terrainCopy, cell, lastCol - firstCol + 1);
+            });
+            if (copiedCells < terrain.length) {
+                return;
+            }
+            pending.add(new Checkpoint(++sequence, clockNanos, captureState(), terrainCopy));
+            terrainCopy = null;
+            return;
+        }
+        Checkpoint checkpoint = new Checkpoint(++sequence, clockNanos, captureState(), null);
+        engine.drainTerrainJournal((row, firstCol, lastCol) -> {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int cell = row * columns + col;
+                checkpoint.add(cell, terrain[cell]);
+            }
+        });
+        pending.add(checkpoint);
+    }
+
+    /**
+     * Copies the next slice of the terrain and returns true if that was the
+     * last one. Cells changed after their slice was copied are in the
+     * journal.
+     */
+    private boolean copyTerrain() {
+        if (copiedCells == terrainCopy.length) {
+            return false;
+        }
+        byte[] terrain = engine.terrain();
+        int end = (int) Math.min(terrain.length, (long) copiedCells + COPY_CELLS_PER_TICK);
+        System.arraycopy(terrain, copiedCells, terrainCopy, copiedCells, end - copiedCells);
+        copiedCells = end;
+        return copiedCells == terrain.length;
+    }
+
+    private byte[] captureState() {
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        return state.array();
+    }
+
+    /**
+     * Stops the writer after the queued checkpoints are written. With
+     * {@code discard}, for a game that ended, the autosave files are deleted
+     * instead. Returns at once; the writer finishes in the background.
+     */
+    public void close(boolean discard) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (discard) {
+            this.discard = true;
+            pending.clear();
+        }
+        pending.add(STOP);
+    }
+
+    /**
+     * Waits up to {@code millis} for the writer to finish after
+     * {@link #close(boolean)}.
+     */
+    public boolean awaitClose(long millis) throws InterruptedException {
+        writer.join(millis);
+        return !writer.isAlive();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            Checkpoint checkpoint;
+            try {
+                checkpoint = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (checkpoint == STOP) {
+                break;
+            }
+            if (checkpoint.terrain != null) {
+                shadowTerrain = checkpoint.terrain;
+            }
+            for (int i = 0; i < checkpoint.changes; i++) {
+                shadowTerrain[checkpoint.cells[i]] = checkpoint.values[i];
+            }
+            try {
+                if (log == null || deltasSinceBase >= deltasPerBase) {
+                    writeBase(checkpoint);
+                } else {
+                    appendDelta(checkpoint);
+                }
+            } catch (IOException | RuntimeException e) {
+                // The chain is broken; start over from a base next time.
+                e.printStackTrace();
+                closeLog();
+            }
+            previousState = checkpoint.state;
+        }
+        closeLog();
+        if (discard) {
+            try {
+                deleteAll(directory);
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeBase(Checkpoint checkpoint) throws IOException {
+        long oldBase = baseSequence;
+        Snapshot.write(new Snapshot.Parts(engine.getConfig(), engine.getSeed(), checkpoint.clockNanos,
+                ByteBuffer.wrap(checkpoint.state), ByteBuffer.wrap(shadowTerrain)), basePath(directory, checkpoint.sequence));
+        closeLog();
+        log = FileChannel.open(logPath(directory, checkpoint.sequence), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        baseSequence = checkpoint.sequence;
+        deltasSinceBase = 0;
+        if (oldBase >= 0) {
+            Files.deleteIfExists(logPath(directory, oldBase));
+            Files.deleteIfExists(basePath(directory, oldBase));
+        } else {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    if (!file.equals(basePath(directory, baseSequence)) && !file.equals(logPath(directory, baseSequence))) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends one deflated record: a header of its lengths and CRC32, then the
+     * state XORed with the previous one and the changed cells.
+     */
+    private void appendDelta(Checkpoint checkpoint) throws IOException {
+        byte[] state = checkpoint.state;
+        boolean xored = previousState != null && previousState.length == state.length;
+        ByteBuffer raw = ByteBuffer.allocate(8 + 8 + 4 + 1 + state.length + 4 + 5 * checkpoint.changes);
+        raw.putLong(checkpoint.sequence);
+        raw.putLong(checkpoint.clockNanos);
+        raw.putInt(state.length);
+        raw.put((byte) (xored ? 1 : 0));
+        for (int i = 0; i < state.length; i++) {
+            raw.put(xored ? (byte) (state[i] ^ previousState[i]) : state[i]);
+        }
+        raw.putInt(checkpoint.changes);
+        int last = 0;
+        for (int i = 0; i < checkpoint.changes; i++) {
+            raw.putInt(checkpoint.cells[i] - last);
+            last = checkpoint.cells[i];
+        }
+        raw.put(checkpoint.values, 0, checkpoint.changes);
+
+        deflater.reset();
+        deflater.setInput(raw.array(), 0, raw.position());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(compressed, 0, length);
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        header.putInt(length).putInt(raw.position()).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] record = {header, ByteBuffer.wrap(compressed, 0, length)};
+        while (record[1].hasRemaining()) {
+            log.write(record);
+        }
+        log.force(false);
+        deltasSinceBase++;
+    }
+
+    private void closeLog() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * Restores the newest autosave in {@code directory}: the newest base that
+     * reads back intact, plus every intact record of its log in sequence.
+     */
+    public static Snapshot recover(Path directory) throws IOException {
+        long[] bases = sequences(directory, BASE_PREFIX, Snapshot.EXTENSION);
+        for (int i = bases.length - 1; i >= 0; i--) {
+            Snapshot.Parts base;
+            try {
+                base = Snapshot.read(basePath(directory, bases[i]));
+            } catch (IOException e) {
+                System.err.println("Skipping autosave base " + bases[i] + ": " + e.getMessage());
+                continue;
+            }
+            byte[] terrain = new byte[base.terrain.remaining()];
+            base.terrain.duplicate().get(terrain);
+            byte[] state = new byte[base.state.remaining()];
+            base.state.duplicate().get(state);
+
+            Path logPath = logPath(directory, bases[i]);
+            long clockNanos = base.clockNanos;
+            long sequence = bases[i];
+            if (Files.exists(logPath)) {
+                ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(logPath));
+                Inflater inflater = new Inflater();
+                try {
+                    while (log.remaining() >= RECORD_HEADER_BYTES) {
+                        int length = log.getInt();
+                        int rawLength = log.getInt();
+                        int expectedCrc = log.getInt();
+                        if (length < 0 || rawLength < 0 || length > log.remaining()) {
+                            break;
+                        }
+                        CRC32 crc = new CRC32();
+                        crc.update(log.array(), log.position(), length);
+                        if ((int) crc.getValue() != expectedCrc) {
+                            break;
+                        }
+                        byte[] raw = new byte[rawLength];
+                        inflater.reset();
+                        inflater.setInput(log.array(), log.position(), length);
+                        if (inflater.inflate(raw) != rawLength) {
+                            break;
+                        }
+                        log.position(log.position() + length);
+
+                        ByteBuffer delta = ByteBuffer.wrap(raw);
+                        if (delta.getLong() != sequence + 1) {
+                            break;
+                        }
+                        sequence++;
+                        clockNanos = delta.getLong();
+                        byte[] next = new byte[delta.getInt()];
+                        boolean xored = delta.get() != 0;
+                        delta.get(next);
+                        if (xored) {
+                            for (int j = 0; j < next.length; j++) {
+                                next[j] ^= state[j];
+                            }
+                        }
+                        state = next;
+                        int changes = delta.getInt();
+                        int[] cells = new int[changes];
+                        int cell = 0;
+                        for (int j = 0; j < changes; j++) {
+                            cell += delta.getInt();
+                            cells[j] = cell;
+                        }
+                        for (int j = 0; j < changes; j++) {
+                            terrain[cells[j]] = delta.get();
+                        }
+                    }
+                } catch (DataFormatException e) {
+                    System.err.println("Autosave log " + logPath + " ends in a corrupt record");
+                } finally {
+                    inflater.end();
+                }
+            }
+            System.err.println("Recovered autosave " + directory + " at checkpoint " + sequence);
+            return new Snapshot(GameEngine.restore(base.config, base.seed, ByteBuffer.wrap(state), ByteBuffer.wrap(terrain)),
+                    clockNanos);
+        }
+        throw new IOException("No usable autosave in " + directory);
+    }
+
+    /**
+     * Whether {@code path} is the base snapshot of an autosave, which
+     * {@link #recover(Path)} should restore together with its log.
+     */
+    public static boolean isBase(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(BASE_PREFIX) && name.endsWith(Snapshot.EXTENSION);
+    }
+
+    private static Path basePath(Path directory, long sequence) {
+        return directory.resolve(BASE_PREFIX + sequence + Snapshot.EXTENSION);
+    }
+
+    private static Path logPath(Path directory, long sequence) {
+        return directory.resolve(LOG_PREFIX + sequence + LOG_EXTENSION);
+    }
+
+    private static long[] sequences(Path directory, String prefix, String extension) throws IOException {
+        long[] sequences = new long[0];
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + extension)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long sequence = Long.parseLong(name.substring(prefix.length(), name.length() - extension.length()));
+                    sequences = Arrays.copyOf(sequences, sequences.length + 1);
+                    sequences[sequences.length - 1] = sequence;
+                } catch (NumberFormatException e) {
+                    // Not one of ours.
+                }
+            }
+        }
+        Arrays.sort(sequences);
+        return sequences;
+    }
+
+    private static void deleteAll(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
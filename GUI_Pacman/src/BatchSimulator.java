@@ -0,0 +1,377 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many complete games without a window, spread across all cores, over
+ * a grid of parameters, and streams the results as CSV or JSON lines.
+ */
+public class BatchSimulator {
+
+    private static final Cell[] POWER_UPS = {Cell.SPEED_BOOST, Cell.INVINCIBLE, Cell.DESTROY_WALL, Cell.EXTRA_LIFE, Cell.EXTRA_SCORE};
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java BatchSimulator [options]",
+            "  --games N              games per grid point (default 1000)",
+            "  --policy NAME          random or cautious (default cautious)",
+            "  --seed S               base seed (default random)",
+            "  --threads N            worker threads (default all cores)",
+            "  --max-ticks N          end a game after N ticks (default 72000, one hour)",
+            "  --format csv|json      output format (default csv)",
+            "  --per-game             one row per game instead of per grid point",
+            "Grid axes, each a comma-separated list:",
+            "  --size, --ghosts, --wall-percent, --speed-boost, --invincible,",
+            "  --wall-destroy, --power-up-period, --ghost-period (milliseconds)");
+
+    private static class GameResult {
+        final int point;
+        final int game;
+        final long seed;
+        final int score;
+        final long ticks;
+        final boolean gameOver;
+        final int[] pickups = new int[POWER_UPS.length];
+        final long nanos;
+
+        GameResult(int point, int game, long seed, GameEngine engine, long nanos) {
+            this.point = point;
+            this.game = game;
+            this.seed = seed;
+            this.score = engine.getScore();
+            this.ticks = engine.getTicks();
+            this.gameOver = engine.isGameOver();
+            for (int i = 0; i < POWER_UPS.length; i++) {
+                pickups[i] = engine.getPickups(POWER_UPS[i]);
+            }
+            this.nanos = nanos;
+        }
+    }
+
+    private static class PointStats {
+        final int[] scores;
+        int games = 0;
+        int survived = 0;
+        long ticks = 0;
+        long nanos = 0;
+        final long[] pickups = new long[POWER_UPS.length];
+
+        PointStats(int games) {
+            scores = new int[games];
+        }
+
+        boolean add(GameResult result) {
+            scores[games++] = result.score;
+            ticks += result.ticks;
+            nanos += result.nanos;
+            if (!result.gameOver) {
+                survived++;
+            }
+            for (int i = 0; i < pickups.length; i++) {
+                pickups[i] += result.pickups[i];
+            }
+            return games == scores.length;
+        }
+
+        int percentile(int percent) {
+            return scores[Math.min(scores.length - 1, scores.length * percent / 100)];
+        }
+    }
+
+    private final List<GameConfig> grid;
+    private final int games;
+    private final String policyName;
+    private final long seed;
+    private final int threads;
+    private final long maxTicks;
+    private final boolean json;
+    private final boolean perGame;
+
+    private final PointStats[] stats;
+    private final AtomicLong nextJob = new AtomicLong();
+    private final AtomicLong totalTicks = new AtomicLong();
+    private final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+
+    public BatchSimulator(List<GameConfig> grid, int games, String policyName, long seed, int threads,
+                          long maxTicks, boolean json, boolean perGame) {
+        PacmanPolicy.forName(policyName);
+        this.grid = grid;
+        this.games = games;
+        this.policyName = policyName;
+        this.seed = seed;
+        this.threads = threads;
+        this.maxTicks = maxTicks;
+        this.json = json;
+        this.perGame = perGame;
+        this.stats = new PointStats[grid.size()];
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = 1000;
+        String policy = "cautious";
+        long seed = new SplittableRandom().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxTicks = 72000;
+        boolean json = false;
+        boolean perGame = false;
+        List<GameConfig> grid = new ArrayList<>();
+        grid.add(GameConfig.DEFAULT);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--per-game")) {
+                    perGame = true;
+                    continue;
+                }
+                if (option.equals("--help") || i + 1 >= args.length) {
+                    System.err.println(USAGE);
+                    System.exit(option.equals("--help") ? 0 : 2);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--games":
+                        games = Integer.parseInt(value);
+                        break;
+                    case "--policy":
+                        policy = value;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--max-ticks":
+                        maxTicks = Long.parseLong(value);
+                        break;
+                    case "--format":
+                        if (!value.equals("csv") && !value.equals("json")) {
+                            throw new IllegalArgumentException("Unknown format: " + value);
+                        }
+                        json = value.equals("json");
+                        break;
+                    default:
+                        grid = expand(grid, option, parseList(value));
+                        break;
+                }
+            }
+            new BatchSimulator(grid, games, policy, seed, threads, maxTicks, json, perGame).run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    private static int[] parseList(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(v -> Integer.parseInt(v.trim())).toArray();
+    }
+
+    private static List<GameConfig> expand(List<GameConfig> grid, String option, int[] values) {
+        List<GameConfig> expanded = new ArrayList<>(grid.size() * values.length);
+        for (GameConfig config : grid) {
+            for (int value : values) {
+                switch (option) {
+                    case "--size":
+                        expanded.add(config.withSize(value));
+                        break;
+                    case "--ghosts":
+                        expanded.add(config.withGhosts(value));
+                        break;
+                    case "--wall-percent":
+                        expanded.add(config.withWallPercent(value));
+                        break;
+                    case "--speed-boost":
+                        expanded.add(config.withSpeedBoostMillis(value));
+                        break;
+                    case "--invincible":
+                        expanded.add(config.withInvincibleMillis(value));
+                        break;
+                    case "--wall-destroy":
+                        expanded.add(config.withWallDestroyMillis(value));
+                        break;
+                    case "--power-up-period":
+                        expanded.add(config.withPowerUpPeriodMillis(value));
+                        break;
+                    case "--ghost-period":
+                        expanded.add(config.withGhostPeriodMillis(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        }
+        return expanded;
+    }
+
+    public void run() throws InterruptedException {
+        printHeader();
+        long start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "simulator-" + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        out.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf(Locale.ROOT, "%d games, %d ticks in %.1f s on %d threads: %.0f games/s, %.0f ticks/s%n",
+                (long) grid.size() * games, totalTicks.get(), seconds, threads,
+                grid.size() * games / seconds, totalTicks.get() / seconds);
+    }
+
+    /**
+     * Worker loop: claims the next game of the run until none are left.
+     */
+    private void work() {
+        long total = (long) grid.size() * games;
+        PacmanPolicy policy = PacmanPolicy.forName(policyName);
+        long job;
+        while ((job = nextJob.getAndIncrement()) < total) {
+            int point = (int) (job / games);
+            int game = (int) (job % games);
+            long gameSeed = new SplittableRandom(seed + job).nextLong();
+            GameResult result = play(point, game, gameSeed, policy);
+            if (perGame) {
+                printGame(result);
+            }
+            PointStats completed = record(result);
+            if (completed != null && !perGame) {
+                printSummary(point, completed);
+            }
+        }
+    }
+
+    private GameResult play(int point, int game, long gameSeed, PacmanPolicy policy) {
+        long start = System.nanoTime();
+        GameEngine engine = new GameEngine(grid.get(point), gameSeed);
+        SplittableRandom random = new SplittableRandom(gameSeed ^ 0x5DEECE66DL);
+        while (!engine.isGameOver() && engine.getTicks() < maxTicks) {
+            engine.setDirection(policy.choose(engine, random));
+            engine.tick();
+        }
+        return new GameResult(point, game, gameSeed, engine, System.nanoTime() - start);
+    }
+
+    private PointStats record(GameResult result) {
+        totalTicks.addAndGet(result.ticks);
+        synchronized (stats) {
+            PointStats point = stats[result.point];
+            if (point == null) {
+                point = new PointStats(games);
+                stats[result.point] = point;
+            }
+            if (!point.add(result)) {
+                return null;
+            }
+            stats[result.point] = null;
+            return point;
+        }
+    }
+
+    private synchronized void printHeader() {
+        if (json) {
+            return;
+        }
+        StringBuilder header = new StringBuilder("point,size,ghosts,wall_percent,speed_boost_ms,invincible_ms,"
+                + "wall_destroy_ms,power_up_period_ms,ghost_period_ms");
+        if (perGame) {
+            header.append(",game,seed,score,survival_s,game_over");
+            for (Cell powerUp : POWER_UPS) {
+                header.append(',').append(powerUp.name().toLowerCase(Locale.ROOT));
+            }
+        } else {
+            header.append(",games,mean_score,p10_score,p50_score,p90_score,max_score,mean_survival_s,survived_to_cap");
+            for (Cell powerUp : POWER_UPS) {
+                header.append(',').append(powerUp.name().toLowerCase(Locale.ROOT)).append("_per_game");
+            }
+            header.append(",ticks_per_s");
+        }
+        out.println(header);
+    }
+
+    private synchronized void printGame(GameResult result) {
+        StringBuilder row = new StringBuilder();
+        appendConfig(row, result.point);
+        field(row, "game", result.game);
+        field(row, "seed", result.seed);
+        field(row, "score", result.score);
+        field(row, "survival_s", result.ticks * GameEngine.TICK_MILLIS / 1000.0);
+        field(row, "game_over", result.gameOver);
+        for (int i = 0; i < POWER_UPS.length; i++) {
+            field(row, POWER_UPS[i].name().toLowerCase(Locale.ROOT), result.pickups[i]);
+        }
+        endRow(row);
+    }
+
+    private synchronized void printSummary(int index, PointStats point) {
+        Arrays.sort(point.scores);
+        long scoreSum = 0;
+        for (int score : point.scores) {
+            scoreSum += score;
+        }
+        StringBuilder row = new StringBuilder();
+        appendConfig(row, index);
+        field(row, "games", point.games);
+        field(row, "mean_score", (double) scoreSum / point.games);
+        field(row, "p10_score", point.percentile(10));
+        field(row, "p50_score", point.percentile(50));
+        field(row, "p90_score", point.percentile(90));
+        field(row, "max_score", point.scores[point.games - 1]);
+        field(row, "mean_survival_s", (double) point.ticks * GameEngine.TICK_MILLIS / 1000.0 / point.games);
+        field(row, "survived_to_cap", (double) point.survived / point.games);
+        for (int i = 0; i < POWER_UPS.length; i++) {
+            field(row, POWER_UPS[i].name().toLowerCase(Locale.ROOT) + "_per_game", (double) point.pickups[i] / point.games);
+        }
+        field(row, "ticks_per_s", point.ticks / (point.nanos / 1e9));
+        endRow(row);
+        out.flush();
+    }
+
+    private void appendConfig(StringBuilder row, int index) {
+        GameConfig config = grid.get(index);
+        if (json) {
+            row.append('{');
+        }
+        field(row, "point", index);
+        field(row, "size", config.getSize());
+        field(row, "ghosts", config.getGhosts());
+        field(row, "wall_percent", config.getWallPercent());
+        field(row, "speed_boost_ms", config.getSpeedBoostMillis());
+        field(row, "invincible_ms", config.getInvincibleMillis());
+        field(row, "wall_destroy_ms", config.getWallDestroyMillis());
+        field(row, "power_up_period_ms", config.getPowerUpPeriodMillis());
+        field(row, "ghost_period_ms", config.getGhostPeriodMillis());
+    }
+
+    private void field(StringBuilder row, String name, Object value) {
+        boolean first = row.length() == 0 || row.charAt(row.length() - 1) == '{';
+        if (!first) {
+            row.append(',');
+        }
+        if (json) {
+            row.append('"').append(name).append("\":");
+        }
+        if (value instanceof Double) {
+            row.append(String.format(Locale.ROOT, "%.3f", (Double) value));
+        } else {
+            row.append(value);
+        }
+    }
+
+    private void endRow(StringBuilder row) {
+        if (json) {
+            row.append('}');
+        }
+        out.println(row);
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Board terrain, one byte per cell (the {@link Cell} ordinal) in a single
+ * row-major array. Pacman and the ghosts are kept in an {@link Occupancy}.
+ */
+public class Board {
+
+    private static final Cell[] CELLS = Cell.values();
+
+    private final int rows;
+    private final int columns;
+    private final byte[] cells;
+    private final FreeCells freeCells;
+    private long terrainVersion = 0;
+
+    public Board(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Unsupported board size " + rows + "x" + columns);
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = new byte[rows * columns];
+        this.freeCells = new FreeCells(cells.length);
+        freeCells.addAll();
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < columns;
+    }
+
+    public int index(int row, int col) {
+        return row * columns + col;
+    }
+
+    public int rowOf(int index) {
+        return index / columns;
+    }
+
+    public int colOf(int index) {
+        return index % columns;
+    }
+
+    public Cell get(int row, int col) {
+        return CELLS[cells[index(row, col)]];
+    }
+
+    public Cell getAt(int index) {
+        return CELLS[cells[index]];
+    }
+
+    public void set(int row, int col, Cell cell) {
+        setAt(index(row, col), cell);
+    }
+
+    public void setAt(int index, Cell cell) {
+        if (cell == Cell.WALL || cells[index] == Cell.WALL.ordinal()) {
+            terrainVersion++;
+        }
+        cells[index] = (byte) cell.ordinal();
+        if (cell == Cell.EMPTY) {
+            freeCells.add(index);
+        } else {
+            freeCells.remove(index);
+        }
+    }
+
+    /**
+     * The backing array, for bulk writers such as {@link MazeGenerator} that
+     * fill the board in parallel. Call {@link #reindex()} when done.
+     */
+    byte[] rawCells() {
+        return cells;
+    }
+
+    /**
+     * Rebuilds the free-cell index after the backing array was written
+     * directly. Relies on {@link Cell#EMPTY} being ordinal 0.
+     */
+    void reindex() {
+        freeCells.rebuild(cells);
+        terrainVersion++;
+    }
+
+    /**
+     * Counter bumped on every change that adds or removes a wall.
+     */
+    public long getTerrainVersion() {
+        return terrainVersion;
+    }
+
+    public int getFreeCellCount() {
+        return freeCells.size();
+    }
+
+    /**
+     * Returns the index of a random empty cell, or -1 when the board is full.
+     */
+    public int pickEmpty(RandomGenerator random) {
+        return freeCells.pick(random);
+    }
+
+    /**
+     * Returns the first empty cell at or after {@code from}, or -1 if there
+     * is none.
+     */
+    public int nextEmpty(int from) {
+        return freeCells.next(from);
+    }
+}
@@ -0,0 +1,189 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Draws the board into cached image chunks, redrawing only the cells that
+ * changed. A {@link Camera} that follows Pacman decides which part is shown.
+ */
+public class BoardView extends JComponent implements CellListener {
+
+    private static final int CHUNK_TILES = 16;
+    private static final int MIN_CACHED_CHUNKS = 64;
+    private static final int VIEW_COLUMNS = 40;
+    private static final int VIEW_ROWS = 30;
+    private static final double CAMERA_EDGE = 0.3;
+
+    private final GameEngine engine;
+    private final int cellSize;
+    private final int chunkColumns;
+    private final SpriteCache sprites = new SpriteCache();
+    private double scale = 1;
+    private final GameMetrics metrics = GameMetrics.get();
+    private final Camera camera;
+    private int maxChunks = MIN_CACHED_CHUNKS;
+
+    private final Map<Integer, BufferedImage> chunks = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+            return size() > maxChunks;
+        }
+    };
+
+    public BoardView(GameEngine engine, int cellSize) {
+        this.engine = engine;
+        this.cellSize = cellSize;
+        this.chunkColumns = (engine.getColumnCount() + CHUNK_TILES - 1) / CHUNK_TILES;
+
+        this.camera = new Camera(engine.getColumnCount() * cellSize, engine.getRowCount() * cellSize, CAMERA_EDGE);
+
+        setPreferredSize(new Dimension(Math.min(engine.getColumnCount(), VIEW_COLUMNS) * cellSize,
+                Math.min(engine.getRowCount(), VIEW_ROWS) * cellSize));
+        setOpaque(true);
+        setFocusable(true);
+        sprites.ensure(cellSize, scale);
+        addPropertyChangeListener("graphicsConfiguration", e -> updateScale());
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                camera.setViewSize(getWidth(), getHeight());
+                followPacman();
+                repaint();
+            }
+        });
+        camera.setViewSize(getPreferredSize().width, getPreferredSize().height);
+        camera.centerOn(engine.getPacmanCol() * cellSize, engine.getPacmanRow() * cellSize, cellSize);
+    }
+
+    /**
+     * Scrolls the view after Pacman if he has walked out of the dead zone.
+     */
+    public void followPacman() {
+        if (camera.follow(engine.getPacmanCol() * cellSize, engine.getPacmanRow() * cellSize, cellSize)) {
+            repaint();
+        }
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    private void updateScale() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        double newScale = configuration != null ? configuration.getDefaultTransform().getScaleX() : 1;
+        if (newScale != scale) {
+            scale = newScale;
+            sprites.ensure(cellSize, scale);
+            chunks.clear();
+            repaint();
+        }
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    int cachedChunkCount() {
+        return chunks.size();
+    }
+
+    @Override
+    public void cellsChanged(int row, int firstCol, int lastCol) {
+        for (int col = firstCol; col <= lastCol; col++) {
+            BufferedImage chunk = chunks.get((row / CHUNK_TILES) * chunkColumns + col / CHUNK_TILES);
+            if (chunk != null) {
+                Graphics2D g = chunk.createGraphics();
+                g.scale(scale, scale);
+                paintCell(g, row, col, (col % CHUNK_TILES) * cellSize, (row % CHUNK_TILES) * cellSize);
+                g.dispose();
+            }
+        }
+        int x = firstCol * cellSize - camera.getX();
+        int y = row * cellSize - camera.getY();
+        int width = (lastCol - firstCol + 1) * cellSize;
+        if (x < getWidth() && x + width > 0 && y < getHeight() && y + cellSize > 0) {
+            repaint(x, y, width, cellSize);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(Color.black);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // From here on, in board pixels.
+        g.translate(-camera.getX(), -camera.getY());
+        clip.translate(camera.getX(), camera.getY());
+
+        int chunkSize = CHUNK_TILES * cellSize;
+        int rowChunks = (engine.getRowCount() + CHUNK_TILES - 1) / CHUNK_TILES;
+        int firstRow = Math.max(0, Math.floorDiv(clip.y, chunkSize));
+        int lastRow = Math.min(rowChunks - 1, Math.floorDiv(clip.y + clip.height - 1, chunkSize));
+        int firstCol = Math.max(0, Math.floorDiv(clip.x, chunkSize));
+        int lastCol = Math.min(chunkColumns - 1, Math.floorDiv(clip.x + clip.width - 1, chunkSize));
+
+        for (int chunkRow = firstRow; chunkRow <= lastRow; chunkRow++) {
+            for (int chunkCol = firstCol; chunkCol <= lastCol; chunkCol++) {
+                g.drawImage(chunk(chunkRow, chunkCol), chunkCol * chunkSize, chunkRow * chunkSize, chunkSize, chunkSize, null);
+            }
+        }
+        g.translate(camera.getX(), camera.getY());
+        prefetchAroundView(chunkSize, rowChunks);
+        metrics.boardRepaint().recordSince(start);
+    }
+
+    /**
+     * Renders the missing chunks in a ring of one chunk around the view and
+     * grows the cache so that the view and its ring always fit.
+     */
+    private void prefetchAroundView(int chunkSize, int rowChunks) {
+        int firstRow = Math.max(0, Math.floorDiv(camera.getY(), chunkSize) - 1);
+        int lastRow = Math.min(rowChunks - 1, Math.floorDiv(camera.getY() + camera.getHeight() - 1, chunkSize) + 1);
+        int firstCol = Math.max(0, Math.floorDiv(camera.getX(), chunkSize) - 1);
+        int lastCol = Math.min(chunkColumns - 1, Math.floorDiv(camera.getX() + camera.getWidth() - 1, chunkSize) + 1);
+        maxChunks = Math.max(maxChunks, 2 * (lastRow - firstRow + 1) * (lastCol - firstCol + 1));
+
+        for (int chunkRow = firstRow; chunkRow <= lastRow; chunkRow++) {
+            for (int chunkCol = firstCol; chunkCol <= lastCol; chunkCol++) {
+                chunk(chunkRow, chunkCol);
+            }
+        }
+    }
+
+    private BufferedImage chunk(int chunkRow, int chunkCol) {
+        int key = chunkRow * chunkColumns + chunkCol;
+        BufferedImage chunk = chunks.get(key);
+        if (chunk == null) {
+            int chunkSize = (int) Math.ceil(CHUNK_TILES * cellSize * scale);
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            chunk = configuration != null
+                    ? configuration.createCompatibleImage(chunkSize, chunkSize)
+                    : new BufferedImage(chunkSize, chunkSize, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = chunk.createGraphics();
+            g.scale(scale, scale);
+            int lastRow = Math.min(engine.getRowCount(), (chunkRow + 1) * CHUNK_TILES);
+            int lastCol = Math.min(engine.getColumnCount(), (chunkCol + 1) * CHUNK_TILES);
+            for (int row = chunkRow * CHUNK_TILES; row < lastRow; row++) {
+                for (int col = chunkCol * CHUNK_TILES; col < lastCol; col++) {
+                    paintCell(g, row, col, (col % CHUNK_TILES) * cellSize, (row % CHUNK_TILES) * cellSize);
+                }
+            }
+            g.dispose();
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private void paintCell(Graphics2D g, int row, int col, int x, int y) {
+        sprites.draw(g, engine.getCell(row, col), engine.getPacmanDirection(), x, y);
+    }
+}
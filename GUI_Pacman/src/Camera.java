@@ -0,0 +1,81 @@
+/**
+ * The part of the board that is on screen, in board pixels. It follows a
+ * target with a dead zone and never leaves the board.
+ */
+public class Camera {
+
+    private final int worldWidth;
+    private final int worldHeight;
+    private final double edgeFraction;
+
+    private int x = 0;
+    private int y = 0;
+    private int width = 0;
+    private int height = 0;
+
+    public Camera(int worldWidth, int worldHeight, double edgeFraction) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.edgeFraction = edgeFraction;
+    }
+
+    /**
+     * Resizes the view, keeping its centre where it was.
+     */
+    public void setViewSize(int width, int height) {
+        x = clamp(x + (this.width - width) / 2, width, worldWidth);
+        y = clamp(y + (this.height - height) / 2, height, worldHeight);
+        this.width = width;
+        this.height = height;
+    }
+
+    public void centerOn(int targetX, int targetY, int targetSize) {
+        x = clamp(targetX + (targetSize - width) / 2, width, worldWidth);
+        y = clamp(targetY + (targetSize - height) / 2, height, worldHeight);
+    }
+
+    /**
+     * Scrolls just far enough to bring the target square back out of the
+     * edges of the view. Returns whether the camera moved.
+     */
+    public boolean follow(int targetX, int targetY, int targetSize) {
+        int oldX = x;
+        int oldY = y;
+        x = followAxis(x, width, worldWidth, targetX, targetSize);
+        y = followAxis(y, height, worldHeight, targetY, targetSize);
+        return x != oldX || y != oldY;
+    }
+
+    private int followAxis(int position, int view, int world, int target, int targetSize) {
+        int edge = Math.min((int) (view * edgeFraction), (view - targetSize) / 2);
+        if (target - position < edge) {
+            position = target - edge;
+        } else if (target + targetSize - position > view - edge) {
+            position = target + targetSize - view + edge;
+        }
+        return clamp(position, view, world);
+    }
+
+    private static int clamp(int position, int view, int world) {
+        if (world <= view) {
+            return (world - view) / 2;
+        }
+        return Math.max(0, Math.min(world - view, position));
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
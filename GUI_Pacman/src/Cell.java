@@ -0,0 +1,3 @@
+public enum Cell {
+    EMPTY, WALL, PACMAN, GHOST, PACMAN_OPEN, PACMAN_CLOSED, SPEED_BOOST, INVINCIBLE, DESTROY_WALL, EXTRA_LIFE, EXTRA_SCORE
+}
@@ -0,0 +1,3 @@
+public interface CellListener {
+    void cellsChanged(int row, int firstCol, int lastCol);
+}
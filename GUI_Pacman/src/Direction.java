@@ -0,0 +1,3 @@
+public enum Direction {
+    UP, DOWN, LEFT, RIGHT, NONE
+}
@@ -0,0 +1,43 @@
+import java.util.Arrays;
+
+/**
+ * Cells changed since the last {@link #drain(CellListener)}. Duplicates are
+ * removed and neighbouring cells of one row are merged, so the listener gets
+ * one event per contiguous run instead of one per write.
+ */
+public class DirtyCells {
+
+    private final int columns;
+    private int[] cells = new int[64];
+    private int count = 0;
+
+    public DirtyCells(int columns) {
+        this.columns = columns;
+    }
+
+    public void add(int row, int col) {
+        if (count == cells.length) {
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        cells[count++] = row * columns + col;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void drain(CellListener listener) {
+        Arrays.sort(cells, 0, count);
+        int i = 0;
+        while (i < count) {
+            int first = cells[i++];
+            int last = first;
+            int row = first / columns;
+            while (i < count && (cells[i] == last || (cells[i] == last + 1 && cells[i] / columns == row))) {
+                last = cells[i++];
+            }
+            listener.cellsChanged(row, first % columns, last % columns);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Timed effects on game entities, driven by a {@link TimerWheel}. Entities
+ * are numbered with {@link #PACMAN} first and ghost {@code i} at
+ * {@code i + 1}.
+ */
+public class EffectScheduler {
+
+    public interface EffectVisitor {
+        void visit(int entity, EffectType type, long remainingTicks);
+    }
+
+    public static final int PACMAN = 0;
+
+    private static final EffectType[] TYPES = EffectType.values();
+    private static final int NONE = -1;
+
+    private final TimerWheel wheel;
+    private int[] timers;
+    private final TimerWheel.ExpiryHandler onExpired = (timer, payload) -> timers[payload] = NONE;
+
+    public EffectScheduler(int entities, int wheelSlots) {
+        wheel = new TimerWheel(wheelSlots);
+        timers = new int[Math.max(1, entities) * TYPES.length];
+        Arrays.fill(timers, NONE);
+    }
+
+    public static int ghost(int index) {
+        return index + 1;
+    }
+
+    /**
+     * Starts {@code type} on {@code entity} for {@code durationTicks}, or
+     * combines it with the running one according to the type's stacking rule.
+     */
+    public void apply(int entity, EffectType type, long durationTicks) {
+        if (durationTicks <= 0) {
+            return;
+        }
+        int key = key(entity, type);
+        int timer = timers[key];
+        long deadline = wheel.getTick() + durationTicks;
+        if (timer == NONE) {
+            timers[key] = wheel.schedule(deadline, key);
+            return;
+        }
+        long current = wheel.deadlineOf(timer);
+        switch (type.getStacking()) {
+            case REFRESH:
+                if (deadline > current) {
+                    wheel.reschedule(timer, deadline);
+                }
+                break;
+            case EXTEND:
+                wheel.reschedule(timer, current + durationTicks);
+                break;
+            case IGNORE:
+                break;
+        }
+    }
+
+    public void cancel(int entity, EffectType type) {
+        int key = key(entity, type);
+        if (timers[key] != NONE) {
+            wheel.cancel(timers[key]);
+            timers[key] = NONE;
+        }
+    }
+
+    public boolean isActive(int entity, EffectType type) {
+        int key = entity * TYPES.length + type.ordinal();
+        return key < timers.length && timers[key] != NONE;
+    }
+
+    /**
+     * Ticks left before the effect ends, or 0 if it is not active.
+     */
+    public long remainingTicks(int entity, EffectType type) {
+        int key = entity * TYPES.length + type.ordinal();
+        if (key >= timers.length || timers[key] == NONE) {
+            return 0;
+        }
+        return wheel.deadlineOf(timers[key]) - wheel.getTick();
+    }
+
+    public int activeCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Calls {@code visitor} for every running effect, ordered by entity and
+     * then type.
+     */
+    public void forEachActive(EffectVisitor visitor) {
+        for (int key = 0; key < timers.length; key++) {
+            if (timers[key] != NONE) {
+                visitor.visit(key / TYPES.length, TYPES[key % TYPES.length], wheel.deadlineOf(timers[key]) - wheel.getTick());
+            }
+        }
+    }
+
+    /**
+     * Advances one tick and ends the effects due on it.
+     */
+    public int tick() {
+        return wheel.advance(onExpired);
+    }
+
+    private int key(int entity, EffectType type) {
+        int key = entity * TYPES.length + type.ordinal();
+        if (key >= timers.length) {
+            int length = timers.length;
+            timers = Arrays.copyOf(timers, Math.max(key + 1, length * 2));
+            Arrays.fill(timers, length, timers.length, NONE);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Timed effects an entity can be under, each with the rule for what picking
+ * it up again while it is still active does.
+ */
+public enum EffectType {
+    SPEED_BOOST(Stacking.REFRESH),
+    INVINCIBLE(Stacking.REFRESH),
+    DESTROY_WALL(Stacking.EXTEND);
+
+    public enum Stacking {
+        /** Restart the full duration, unless more than that is left. */
+        REFRESH,
+        /** Add the new duration to what is left. */
+        EXTEND,
+        /** Keep the running effect and drop the new one. */
+        IGNORE
+    }
+
+    private final Stacking stacking;
+
+    EffectType(Stacking stacking) {
+        this.stacking = stacking;
+    }
+
+    public Stacking getStacking() {
+        return stacking;
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.Arrays;
+
+/**
+ * Breadth-first distance field from Pacman, shared by all ghosts, over a
+ * window around him. When Pacman moves, the old distances are kept and only
+ * the cells his new position brings closer are searched again.
+ */
+public class FlowField {
+
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private static final int RADIUS = 512;
+    private static final int BLOCK = 64;
+
+    private static final int WALL = Integer.MIN_VALUE;
+    private static final int OPEN = Integer.MAX_VALUE;
+    private static final int MAX_OFFSET = 1 << 30;
+
+    private static final byte TARGET = 1;
+    private static final byte PUSHED = 2;
+
+    private final Board board;
+    private final int width;
+    private final int height;
+    private final int stride;
+
+    // Distance minus offset per cell of the window plus a border of walls.
+    private final int[] key;
+    private final byte[] marks;
+
+    // Cells waiting to be expanded: pending holds those left from earlier
+    // updates, wave those reached in this one. Both are sorted by key.
+    private int[] pending;
+    private int pendingHead = 0;
+    private int pendingTail = 0;
+    private final int[] wave;
+    private int waveHead = 0;
+    private int waveTail = 0;
+    private int[] scratch;
+
+    private int originRow = -1;
+    private int originCol = -1;
+    private int sourceIndex = -1;
+    private long terrainVersion = -1;
+    private int offset = 0;
+    private int remaining = 0;
+    private int limit = 0;
+
+    public FlowField(Board board) {
+        this.board = board;
+        this.width = Math.min(board.getColumnCount(), 2 * RADIUS + 1);
+        this.height = Math.min(board.getRowCount(), 2 * RADIUS + 1);
+        this.stride = width + 2;
+        int cells = stride * (height + 2);
+        this.key = new int[cells];
+        this.marks = new byte[cells];
+        this.pending = new int[cells];
+        this.wave = new int[cells];
+        this.scratch = new int[cells];
+    }
+
+    /**
+     * Brings the field up to date for Pacman at {@code sourceRow, sourceCol}.
+     * {@code rows} and {@code cols} hold the ghost positions.
+     */
+    public void update(int sourceRow, int sourceCol, int[] rows, int[] cols, int targetCount) {
+        int source = board.index(sourceRow, sourceCol);
+        if (board.getTerrainVersion() != terrainVersion
+                || originRow != origin(sourceRow, board.getRowCount(), height)
+                || originCol != origin(sourceCol, board.getColumnCount(), width)) {
+            restart(sourceRow, sourceCol, source);
+        } else if (source != sourceIndex) {
+            int local = local(sourceRow, sourceCol);
+            if (key[local] == OPEN || key[local] == WALL || (long) offset + key[local] + offset > MAX_OFFSET) {
+                restart(sourceRow, sourceCol, source);
+            } else {
+                // No distance grows by more than the distance Pacman moved.
+                sourceIndex = source;
+                offset += key[local] + offset;
+                key[local] = -offset;
+                push(local);
+            }
+        }
+
+        remaining = 0;
+        for (int i = 0; i < targetCount; i++) {
+            int local = local(rows[i], cols[i]);
+            if (local >= 0 && key[local] == OPEN && marks[local] == 0) {
+                marks[local] = TARGET;
+                remaining++;
+            }
+        }
+        while (remaining > 0 && expandNext()) {
+        }
+        for (int i = 0; i < targetCount; i++) {
+            int local = local(rows[i], cols[i]);
+            if (local >= 0) {
+                marks[local] &= ~TARGET;
+            }
+        }
+
+        // Settle every ghost that was reached, then search one step past the
+        // farthest of them.
+        int farthest = farthestTarget(rows, cols, targetCount);
+        while (nextKey() < farthest - offset && expandNext()) {
+        }
+        limit = farthestTarget(rows, cols, targetCount) + 1;
+        while (nextKey() < limit - offset && expandNext()) {
+        }
+        mergeWave();
+    }
+
+    private int farthestTarget(int[] rows, int[] cols, int targetCount) {
+        int farthest = -1;
+        for (int i = 0; i < targetCount; i++) {
+            int local = local(rows[i], cols[i]);
+            if (local >= 0 && key[local] != OPEN && key[local] != WALL) {
+                farthest = Math.max(farthest, key[local] + offset);
+            }
+        }
+        return farthest;
+    }
+
+    private static int origin(int source, int boardSize, int windowSize) {
+        int centre = source / BLOCK * BLOCK + BLOCK / 2;
+        return Math.max(0, Math.min(centre - RADIUS, boardSize - windowSize));
+    }
+
+    private void restart(int sourceRow, int sourceCol, int source) {
+        sourceIndex = source;
+        terrainVersion = board.getTerrainVersion();
+        originRow = origin(sourceRow, board.getRowCount(), height);
+        originCol = origin(sourceCol, board.getColumnCount(), width);
+        offset = 0;
+
+        Arrays.fill(key, WALL);
+        Arrays.fill(marks, (byte) 0);
+        byte[] cells = board.rawCells();
+        byte wall = (byte) Cell.WALL.ordinal();
+        for (int row = 0; row < height; row++) {
+            int from = board.index(originRow + row, originCol);
+            int to = (row + 1) * stride + 1;
+            for (int col = 0; col < width; col++) {
+                key[to + col] = cells[from + col] == wall ? WALL : OPEN;
+            }
+        }
+
+        pendingHead = 0;
+        pendingTail = 0;
+        waveHead = 0;
+        waveTail = 0;
+        int start = local(sourceRow, sourceCol);
+        key[start] = 0;
+        push(start);
+    }
+
+    private void push(int local) {
+        marks[local] |= PUSHED;
+        wave[waveTail++] = local;
+    }
+
+    /**
+     * Key of the next cell to expand, or {@code OPEN} when none is left.
+     */
+    private int nextKey() {
+        while (pendingHead < pendingTail && (marks[pending[pendingHead]] & PUSHED) != 0) {
+            pendingHead++;
+        }
+        int next = OPEN;
+        if (pendingHead < pendingTail) {
+            next = key[pending[pendingHead]];
+        }
+        if (waveHead < waveTail) {
+            next = Math.min(next, key[wave[waveHead]]);
+        }
+        return next;
+    }
+
+    /**
+     * Expands the cell with the smallest key.
+     */
+    private boolean expandNext() {
+        if (nextKey() == OPEN) {
+            return false;
+        }
+        int current;
+        if (waveHead < waveTail && (pendingHead == pendingTail || key[wave[waveHead]] <= key[pending[pendingHead]])) {
+            current = wave[waveHead++];
+        } else {
+            current = pending[pendingHead++];
+        }
+        int next = key[current] + 1;
+        relax(current - stride, next);
+        relax(current + stride, next);
+        relax(current - 1, next);
+        relax(current + 1, next);
+        return true;
+    }
+
+    private void relax(int local, int next) {
+        int old = key[local];
+        if (old > next) {
+            key[local] = next;
+            if (old == OPEN) {
+                remaining -= marks[local] & TARGET;
+            }
+            push(local);
+        }
+    }
+
+    /**
+     * Folds the cells still queued in the wave into the pending queue,
+     * keeping it sorted.
+     */
+    private void mergeWave() {
+        int count = 0;
+        int p = pendingHead;
+        int w = waveHead;
+        while (true) {
+            while (p < pendingTail && (marks[pending[p]] & PUSHED) != 0) {
+                p++;
+            }
+            if (p < pendingTail && (w == waveTail || key[pending[p]] <= key[wave[w]])) {
+                scratch[count++] = pending[p++];
+            } else if (w < waveTail) {
+                scratch[count++] = wave[w++];
+            } else {
+                break;
+            }
+        }
+        for (int i = 0; i < waveTail; i++) {
+            marks[wave[i]] &= ~PUSHED;
+        }
+        int[] swap = pending;
+        pending = scratch;
+        scratch = swap;
+        pendingHead = 0;
+        pendingTail = count;
+        waveHead = 0;
+        waveTail = 0;
+    }
+
+    private int local(int row, int col) {
+        int localRow = row - originRow;
+        int localCol = col - originCol;
+        if (localRow < 0 || localRow >= height || localCol < 0 || localCol >= width) {
+            return -1;
+        }
+        return (localRow + 1) * stride + localCol + 1;
+    }
+
+    public int distance(int row, int col) {
+        int local = local(row, col);
+        if (local < 0 || key[local] == OPEN || key[local] == WALL || key[local] + offset > limit) {
+            return UNREACHED;
+        }
+        return key[local] + offset;
+    }
+}
@@ -0,0 +1,167 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Set of empty board cells, one bit each, with O(1) add, remove and random
+ * pick.
+ */
+public class FreeCells {
+
+    private static final int PICK_ATTEMPTS = 8;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_SEVEN = 0x7F7F7F7F7F7F7F7FL;
+    private static final long GATHER = 0x0102040810204080L;
+
+    private final int capacity;
+    private final long[] words;
+    private final int[] listedWords;
+    private final int[] slotOfWord;
+    private int listedCount = 0;
+    private int count = 0;
+
+    public FreeCells(int capacity) {
+        this.capacity = capacity;
+        int wordCount = (capacity + 63) >>> 6;
+        words = new long[wordCount];
+        listedWords = new int[wordCount];
+        slotOfWord = new int[wordCount];
+        Arrays.fill(slotOfWord, -1);
+    }
+
+    public void addAll() {
+        Arrays.fill(words, -1L);
+        if ((capacity & 63) != 0) {
+            words[words.length - 1] = (1L << (capacity & 63)) - 1;
+        }
+        for (int w = 0; w < words.length; w++) {
+            listedWords[w] = w;
+            slotOfWord[w] = w;
+        }
+        listedCount = words.length;
+        count = capacity;
+    }
+
+    /**
+     * Rebuilds the set from a board array in which a cell is free when its byte
+     * is zero, eight cells at a time.
+     */
+    public void rebuild(byte[] cells) {
+        listedCount = 0;
+        count = 0;
+        int fullWords = Math.min(words.length, cells.length >>> 6);
+        for (int w = 0; w < words.length; w++) {
+            int base = w << 6;
+            long word = 0;
+            if (w < fullWords) {
+                for (int part = 0; part < 8; part++) {
+                    long bytes = (long) LONGS.get(cells, base + (part << 3));
+                    long zeroes = ~(((bytes & LOW_SEVEN) + LOW_SEVEN) | bytes | LOW_SEVEN);
+                    word |= (((zeroes >>> 7) * GATHER) >>> 56) << (part << 3);
+                }
+            } else {
+                for (int bit = 0; base + bit < capacity; bit++) {
+                    if (cells[base + bit] == 0) {
+                        word |= 1L << bit;
+                    }
+                }
+            }
+            words[w] = word;
+            if (word != 0) {
+                slotOfWord[w] = listedCount;
+                listedWords[listedCount++] = w;
+                count += Long.bitCount(word);
+            } else {
+                slotOfWord[w] = -1;
+            }
+        }
+    }
+
+    public void add(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        if ((words[w] & bit) != 0) {
+            return;
+        }
+        if (words[w] == 0) {
+            slotOfWord[w] = listedCount;
+            listedWords[listedCount++] = w;
+        }
+        words[w] |= bit;
+        count++;
+    }
+
+    public void remove(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        if ((words[w] & bit) == 0) {
+            return;
+        }
+        words[w] &= ~bit;
+        count--;
+        if (words[w] == 0) {
+            int slot = slotOfWord[w];
+            int last = listedWords[--listedCount];
+            listedWords[slot] = last;
+            slotOfWord[last] = slot;
+            slotOfWord[w] = -1;
+        }
+    }
+
+    public boolean contains(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the first free cell at or after {@code from}, or -1 if there is
+     * none.
+     */
+    public int next(int from) {
+        if (from >= capacity) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long bits = words[w] & (-1L << from);
+        while (bits == 0) {
+            if (++w == words.length) {
+                return -1;
+            }
+            bits = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns a random free cell, or -1 when there is none.
+     */
+    public int pick(RandomGenerator random) {
+        if (count == 0) {
+            return -1;
+        }
+        int w = 0;
+        int free = 0;
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            w = listedWords[random.nextInt(listedCount)];
+            free = Long.bitCount(words[w]);
+            if (random.nextInt(64) < free) {
+                break;
+            }
+        }
+        long bits = words[w];
+        for (int k = random.nextInt(free); k > 0; k--) {
+            bits &= bits - 1;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Game time in nanoseconds. A real-time clock can be paused and scaled; a
+ * manual clock only moves when {@link #advance(long)} is called.
+ */
+public class GameClock {
+
+    private final boolean manual;
+
+    private long baseGameNanos = 0;
+    private long baseRealNanos;
+    private double timeScale = 1;
+    private boolean paused = false;
+
+    private GameClock(boolean manual, long startNanos) {
+        this.manual = manual;
+        this.baseGameNanos = startNanos;
+        this.baseRealNanos = System.nanoTime();
+    }
+
+    /**
+     * A running clock that starts at zero now.
+     */
+    public static GameClock realTime() {
+        return realTime(0);
+    }
+
+    /**
+     * A running clock that starts at {@code startNanos} now, for resuming a
+     * saved game.
+     */
+    public static GameClock realTime(long startNanos) {
+        return new GameClock(false, startNanos);
+    }
+
+    /**
+     * A clock at zero that only moves through {@link #advance(long)}.
+     */
+    public static GameClock manual() {
+        return new GameClock(true, 0);
+    }
+
+    public synchronized long nanos() {
+        if (manual || paused) {
+            return baseGameNanos;
+        }
+        return baseGameNanos + (long) ((System.nanoTime() - baseRealNanos) * timeScale);
+    }
+
+    public long millis() {
+        return nanos() / 1_000_000;
+    }
+
+    public synchronized void pause() {
+        if (!paused) {
+            rebase();
+            paused = true;
+        }
+    }
+
+    public synchronized void resume() {
+        if (paused) {
+            paused = false;
+            baseRealNanos = System.nanoTime();
+        }
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Sets how many nanoseconds of game time pass per real nanosecond; 2 runs
+     * the game at double speed.
+     */
+    public synchronized void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) {
+            throw new IllegalArgumentException("Time scale must be positive: " + timeScale);
+        }
+        rebase();
+        this.timeScale = timeScale;
+    }
+
+    public synchronized double getTimeScale() {
+        return timeScale;
+    }
+
+    public boolean isManual() {
+        return manual;
+    }
+
+    public synchronized void advance(long nanos) {
+        if (!manual) {
+            throw new IllegalStateException("Only a manual clock can be advanced");
+        }
+        baseGameNanos += nanos;
+    }
+
+    /**
+     * Real nanoseconds until this clock reaches {@code gameNanos}, or
+     * {@link Long#MAX_VALUE} if it is paused or manual and will not get there
+     * by itself.
+     */
+    public synchronized long realNanosUntil(long gameNanos) {
+        if (manual || paused) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (long) ((gameNanos - nanos()) / timeScale));
+    }
+
+    private void rebase() {
+        long now = System.nanoTime();
+        if (!manual && !paused) {
+            baseGameNanos += (long) ((now - baseRealNanos) * timeScale);
+        }
+        baseRealNanos = now;
+    }
+}
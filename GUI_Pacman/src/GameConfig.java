@@ -0,0 +1,116 @@
+/**
+ * Immutable game parameters; the {@code with} methods return a modified
+ * copy. Durations are in game milliseconds.
+ */
+public class GameConfig {
+
+    public static final GameConfig DEFAULT = new GameConfig(20, GameEngine.DEFAULT_GHOSTS, 20,
+            10000, 10000, 7000, 5000, 500);
+
+    private final int size;
+    private final int ghosts;
+    private final int wallPercent;
+    private final int speedBoostMillis;
+    private final int invincibleMillis;
+    private final int wallDestroyMillis;
+    private final int powerUpPeriodMillis;
+    private final int ghostPeriodMillis;
+
+    private GameConfig(int size, int ghosts, int wallPercent, int speedBoostMillis, int invincibleMillis,
+                       int wallDestroyMillis, int powerUpPeriodMillis, int ghostPeriodMillis) {
+        if (size <= 0 || ghosts < 0 || wallPercent < 0 || wallPercent > 100) {
+            throw new IllegalArgumentException("Invalid size, ghost count or wall percentage");
+        }
+        if (powerUpPeriodMillis < GameEngine.TICK_MILLIS || ghostPeriodMillis < GameEngine.TICK_MILLIS) {
+            throw new IllegalArgumentException("Periods must be at least one tick");
+        }
+        this.size = size;
+        this.ghosts = ghosts;
+        this.wallPercent = wallPercent;
+        this.speedBoostMillis = speedBoostMillis;
+        this.invincibleMillis = invincibleMillis;
+        this.wallDestroyMillis = wallDestroyMillis;
+        this.powerUpPeriodMillis = powerUpPeriodMillis;
+        this.ghostPeriodMillis = ghostPeriodMillis;
+    }
+
+    public GameConfig withSize(int size) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withGhosts(int ghosts) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withWallPercent(int wallPercent) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withSpeedBoostMillis(int speedBoostMillis) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withInvincibleMillis(int invincibleMillis) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withWallDestroyMillis(int wallDestroyMillis) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withPowerUpPeriodMillis(int powerUpPeriodMillis) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public GameConfig withGhostPeriodMillis(int ghostPeriodMillis) {
+        return new GameConfig(size, ghosts, wallPercent, speedBoostMillis, invincibleMillis,
+                wallDestroyMillis, powerUpPeriodMillis, ghostPeriodMillis);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getGhosts() {
+        return ghosts;
+    }
+
+    public int getWallPercent() {
+        return wallPercent;
+    }
+
+    public int getSpeedBoostMillis() {
+        return speedBoostMillis;
+    }
+
+    public int getInvincibleMillis() {
+        return invincibleMillis;
+    }
+
+    public int getWallDestroyMillis() {
+        return wallDestroyMillis;
+    }
+
+    public int getPowerUpPeriodMillis() {
+        return powerUpPeriodMillis;
+    }
+
+    public int getGhostPeriodMillis() {
+        return ghostPeriodMillis;
+    }
+
+    public int getPowerUpPeriodTicks() {
+        return powerUpPeriodMillis / GameEngine.TICK_MILLIS;
+    }
+
+    public int getGhostPeriodTicks() {
+        return ghostPeriodMillis / GameEngine.TICK_MILLIS;
+    }
+}
@@ -0,0 +1,768 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Game rules without any Swing or AWT dependency. One {@link #tick()}
+ * advances the game by {@link #TICK_MILLIS} milliseconds, and all randomness
+ * comes from the seed, so a game can be replayed exactly.
+ */
+public class GameEngine {
+
+    public static final int TICK_MILLIS = 50;
+
+    private static final int PACMAN_PERIOD = 300 / TICK_MILLIS;
+    private static final int BOOSTED_PACMAN_PERIOD = 150 / TICK_MILLIS;
+    private static final int ANIMATION_PERIOD = 300 / TICK_MILLIS;
+    private static final int SCORE_PERIOD = 5000 / TICK_MILLIS;
+
+    public static final int DEFAULT_GHOSTS = 5;
+
+    private static final int PARALLEL_GHOST_THRESHOLD = 256;
+    private static final int EFFECT_WHEEL_SLOTS = 256;
+    private static final int PLACEMENT_ATTEMPTS = 64;
+
+    private static final int SCATTER_TICKS = 7000 / TICK_MILLIS;
+    private static final int MODE_CYCLE_TICKS = 27000 / TICK_MILLIS;
+
+    private static final int[] ROW_STEPS = {-1, 1, 0, 0};
+    private static final int[] COL_STEPS = {0, 0, -1, 1};
+
+    private static final Cell[] POWER_UPS = {Cell.SPEED_BOOST, Cell.INVINCIBLE, Cell.DESTROY_WALL, Cell.EXTRA_LIFE, Cell.EXTRA_SCORE};
+
+    private final GameConfig config;
+    private final int ghostPeriod;
+    private final int powerUpPeriod;
+
+    private final long seed;
+    private final SplitMix64 terrainRandom;
+    private final SplitMix64 placementRandom;
+    private final SplitMix64 powerUpRandom;
+    private final long wanderSeed;
+
+    private final Board board;
+    private final Occupancy occupancy;
+
+    private int pacmanRow;
+    private int pacmanCol;
+
+    private Direction pacmanDirection = Direction.NONE;
+    private boolean pacmanMouthOpen = false;
+    private Cell pacmanCell = Cell.PACMAN;
+
+    private final Ghosts ghosts;
+    private final FlowField flowField;
+
+    private int score = 0;
+    private int lives = 3;
+    private boolean gameOver = false;
+
+    private final EffectScheduler effects;
+
+    private final int[] pickups = new int[Cell.values().length];
+
+    private long ticks = 0;
+    private int ticksSincePacmanMove = 0;
+
+    private CellListener cellListener;
+    private CellListener terrainListener;
+    private GameMetrics metrics;
+    private final DirtyCells dirtyCells;
+    private final DirtyCells dirtyTerrain;
+    private DirtyCells terrainJournal;
+
+    public GameEngine(int size) {
+        this(size, DEFAULT_GHOSTS);
+    }
+
+    public GameEngine(int size, int ghostCount) {
+        this(size, ghostCount, ThreadLocalRandom.current().nextLong());
+    }
+
+    public GameEngine(int size, int ghostCount, long seed) {
+        this(GameConfig.DEFAULT.withSize(size).withGhosts(ghostCount), seed);
+    }
+
+    public GameEngine(GameConfig config, long seed) {
+        this(config, seed, true);
+    }
+
+    /**
+     * Without {@code generate} the board is left empty and no entity is
+     * placed, for {@link #restore} to fill in.
+     */
+    private GameEngine(GameConfig config, long seed, boolean generate) {
+        this.ghostPeriod = config.getGhostPeriodTicks();
+        this.powerUpPeriod = config.getPowerUpPeriodTicks();
+        this.seed = seed;
+        SplitMix64 random = new SplitMix64(seed);
+        terrainRandom = random.split();
+        placementRandom = random.split();
+        powerUpRandom = random.split();
+        wanderSeed = random.nextLong();
+
+        int size = config.getSize();
+        board = new Board(size, size);
+        if (generate) {
+            MazeGenerator.generate(board, config.getWallPercent(), terrainRandom.nextLong());
+            // Each ghost needs a free cell of its own, and one is left for Pacman.
+            config = config.withGhosts(Math.min(config.getGhosts(), Math.max(board.getFreeCellCount() - 1, 0)));
+        }
+        this.config = config;
+        occupancy = new Occupancy(board.size(), config.getGhosts() + 1);
+        ghosts = new Ghosts(config.getGhosts());
+        effects = new EffectScheduler(config.getGhosts() + 1, EFFECT_WHEEL_SLOTS);
+        dirtyCells = new DirtyCells(size);
+        dirtyTerrain = new DirtyCells(size);
+        flowField = new FlowField(board);
+        if (generate) {
+            for (int i = 0; i < ghosts.capacity(); i++) {
+                placeGhost();
+            }
+            placePacman();
+        }
+    }
+
+    public void setCellListener(CellListener cellListener) {
+        this.cellListener = cellListener;
+    }
+
+    /**
+     * Like {@link #setCellListener} but only told about terrain changes, not
+     * about Pacman or the ghosts moving.
+     */
+    public void setTerrainListener(CellListener terrainListener) {
+        this.terrainListener = terrainListener;
+    }
+
+    /**
+     * Times the Pacman, ghost and power-up steps into {@code metrics}; with
+     * no metrics set (the default) the steps are not timed at all.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void flushChanges() {
+        if (cellListener != null && !dirtyCells.isEmpty()) {
+            dirtyCells.drain(cellListener);
+        }
+        if (terrainListener != null && !dirtyTerrain.isEmpty()) {
+            dirtyTerrain.drain(terrainListener);
+        }
+    }
+
+    public void tick() {
+        if (gameOver) {
+            return;
+        }
+        ticks++;
+        effects.tick();
+
+        ticksSincePacmanMove++;
+        if (ticksSincePacmanMove >= (isSpeedBoostActive() ? BOOSTED_PACMAN_PERIOD : PACMAN_PERIOD)) {
+            ticksSincePacmanMove = 0;
+            long start = metrics != null ? System.nanoTime() : 0;
+            updatePacmanPosition();
+            if (metrics != null) {
+                metrics.pacmanMove().recordSince(start);
+            }
+        }
+        if (ticks % ANIMATION_PERIOD == 0) {
+            animatePacman();
+        }
+        if (ticks % ghostPeriod == 0) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            moveGhosts();
+            if (metrics != null) {
+                metrics.ghostMove().recordSince(start);
+            }
+        }
+        if (ticks % powerUpPeriod == 0) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            spawnPowerUp();
+            if (metrics != null) {
+                metrics.powerUpSpawn().recordSince(start);
+            }
+        }
+        if (ticks % SCORE_PERIOD == 0) {
+            accrueScore();
+        }
+    }
+
+    void updatePacmanPosition() {
+        if (pacmanDirection != Direction.NONE) {
+            movePacman();
+        }
+    }
+
+    void animatePacman() {
+        pacmanMouthOpen = !pacmanMouthOpen;
+        pacmanCell = pacmanMouthOpen ? Cell.PACMAN_OPEN : Cell.PACMAN_CLOSED;
+        markDirty(pacmanRow, pacmanCol);
+    }
+
+    void accrueScore() {
+        score += 10;
+    }
+
+    private void movePacman() {
+        int newRow = pacmanRow;
+        int newCol = pacmanCol;
+
+        switch (pacmanDirection) {
+            case UP:
+                newRow--;
+                break;
+            case DOWN:
+                newRow++;
+                break;
+            case LEFT:
+                newCol--;
+                break;
+            case RIGHT:
+                newCol++;
+                break;
+            default:
+                break;
+        }
+
+        if (!board.contains(newRow, newCol)) {
+            return;
+        }
+        int target = board.index(newRow, newCol);
+        if (occupancy.isOccupied(target)) {
+            // Only ghosts share the layer with Pacman. An invincible Pacman
+            // cannot walk through them; otherwise he is caught.
+            if (!isInvincibleActive()) {
+                loseLifeAndRespawn();
+            }
+            return;
+        }
+
+        Cell terrain = board.getAt(target);
+        if (terrain == Cell.WALL) {
+            if (!canDestroyWalls()) {
+                return;
+            }
+            setCell(newRow, newCol, Cell.EMPTY);
+        } else if (isPowerUp(terrain)) {
+            applyPowerUp(terrain);
+            setCell(newRow, newCol, Cell.EMPTY);
+        }
+
+        occupancy.move(board.index(pacmanRow, pacmanCol), target);
+        markDirty(pacmanRow, pacmanCol);
+        pacmanRow = newRow;
+        pacmanCol = newCol;
+        pacmanCell = pacmanMouthOpen ? Cell.PACMAN_OPEN : Cell.PACMAN_CLOSED;
+        markDirty(pacmanRow, pacmanCol);
+    }
+
+    public static boolean isPowerUp(Cell cell) {
+        return cell == Cell.SPEED_BOOST || cell == Cell.INVINCIBLE ||
+                cell == Cell.DESTROY_WALL || cell == Cell.EXTRA_LIFE ||
+                cell == Cell.EXTRA_SCORE;
+    }
+
+    private void applyPowerUp(Cell powerUp) {
+        pickups[powerUp.ordinal()]++;
+        switch (powerUp) {
+            case SPEED_BOOST:
+                effects.apply(EffectScheduler.PACMAN, EffectType.SPEED_BOOST, toTicks(config.getSpeedBoostMillis()));
+                break;
+            case INVINCIBLE:
+                effects.apply(EffectScheduler.PACMAN, EffectType.INVINCIBLE, toTicks(config.getInvincibleMillis()));
+                break;
+            case DESTROY_WALL:
+                effects.apply(EffectScheduler.PACMAN, EffectType.DESTROY_WALL, toTicks(config.getWallDestroyMillis()));
+                break;
+            case EXTRA_LIFE:
+                lives++;
+                break;
+            case EXTRA_SCORE:
+                score += 15;
+                break;
+        }
+    }
+
+    private static long toTicks(int millis) {
+        return millis / TICK_MILLIS;
+    }
+
+    private void loseLifeAndRespawn() {
+        if (!isInvincibleActive()) {
+            lives--;
+            if (lives > 0) {
+                occupancy.remove(board.index(pacmanRow, pacmanCol));
+                markDirty(pacmanRow, pacmanCol);
+                placePacman();
+            } else {
+                gameOver = true;
+            }
+        }
+    }
+
+    private void placePacman() {
+        int index = pickFreeCell(placementRandom);
+        if (index < 0) {
+            gameOver = true;
+            return;
+        }
+        occupancy.place(index, EffectScheduler.PACMAN);
+        pacmanRow = board.rowOf(index);
+        pacmanCol = board.colOf(index);
+        pacmanCell = Cell.PACMAN;
+        markDirty(pacmanRow, pacmanCol);
+    }
+
+    /**
+     * Returns a random empty cell with no entity on it, or -1 if there is
+     * none. When random picks keep hitting entities, the empty cells are
+     * scanned from a random start instead.
+     */
+    private int pickFreeCell(RandomGenerator random) {
+        for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+            int index = board.pickEmpty(random);
+            if (index < 0 || !occupancy.isOccupied(index)) {
+                return index;
+            }
+        }
+        int start = random.nextInt(board.size());
+        for (int index = board.nextEmpty(start); index >= 0; index = board.nextEmpty(index + 1)) {
+            if (!occupancy.isOccupied(index)) {
+                return index;
+            }
+        }
+        for (int index = board.nextEmpty(0); index >= 0 && index < start; index = board.nextEmpty(index + 1)) {
+            if (!occupancy.isOccupied(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void placeGhost() {
+        int index = pickFreeCell(placementRandom);
+        if (index < 0) {
+            return;
+        }
+        int ghost = ghosts.add(board.rowOf(index), board.colOf(index));
+        occupancy.place(index, EffectScheduler.ghost(ghost));
+    }
+
+    public GhostMode getGhostMode() {
+        if (isInvincibleActive()) {
+            return GhostMode.FRIGHTENED;
+        }
+        return ticks % MODE_CYCLE_TICKS < SCATTER_TICKS ? GhostMode.SCATTER : GhostMode.CHASE;
+    }
+
+    /**
+     * Moves the clock on without running the ticks in between, so the ghost
+     * mode can be set up without playing the game.
+     */
+    void skipTicks(long count) {
+        ticks += count;
+    }
+
+    void moveGhosts() {
+        GhostMode mode = getGhostMode();
+        if (mode != GhostMode.SCATTER) {
+            flowField.update(pacmanRow, pacmanCol, ghosts.rows, ghosts.cols, ghosts.size());
+        }
+
+        GhostPlanner planner = new GhostPlanner(mode, 0, ghosts.size());
+        if (ghosts.size() > PARALLEL_GHOST_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(planner);
+        } else {
+            planner.compute();
+        }
+
+        // Merge in ghost order: when two ghosts planned the same cell the
+        // lower index gets it and the other one stays put. Only a ghost that
+        // planned to step onto Pacman where he stood catches him, not one
+        // that happens to find him after he respawned.
+        int plannedPacman = board.index(pacmanRow, pacmanCol);
+        for (int i = 0; i < ghosts.size(); i++) {
+            int target = ghosts.targets[i];
+            if (target < 0) {
+                continue;
+            }
+            int occupant = occupancy.entityAt(target);
+            if (occupant == EffectScheduler.PACMAN && target == plannedPacman) {
+                loseLifeAndRespawn();
+                if (gameOver) {
+                    return;
+                }
+                plannedPacman = -1;
+                occupant = occupancy.entityAt(target);
+            }
+            if (occupant != Occupancy.NONE) {
+                continue;
+            }
+
+            occupancy.move(board.index(ghosts.rows[i], ghosts.cols[i]), target);
+            markDirty(ghosts.rows[i], ghosts.cols[i]);
+            ghosts.rows[i] = board.rowOf(target);
+            ghosts.cols[i] = board.colOf(target);
+            markDirty(ghosts.rows[i], ghosts.cols[i]);
+        }
+    }
+
+    private class GhostPlanner extends RecursiveAction {
+        private final GhostMode mode;
+        private final int from;
+        private final int to;
+
+        GhostPlanner(GhostMode mode, int from, int to) {
+            this.mode = mode;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GHOST_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    int row = ghosts.rows[i];
+                    int col = ghosts.cols[i];
+                    int step = chooseGhostStep(i, row, col, mode);
+                    ghosts.modes[i] = (byte) mode.ordinal();
+                    ghosts.targets[i] = step < 0 ? -1 : board.index(row + ROW_STEPS[step], col + COL_STEPS[step]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GhostPlanner(mode, from, middle), new GhostPlanner(mode, middle, to));
+            }
+        }
+    }
+
+    private int chooseGhostStep(int ghost, int row, int col, GhostMode mode) {
+        int best = -1;
+        if (mode == GhostMode.CHASE) {
+            int bestDistance = flowField.distance(row, col);
+            for (int step = 0; step < ROW_STEPS.length; step++) {
+                int distance = flowField.distance(row + ROW_STEPS[step], col + COL_STEPS[step]);
+                if (distance < bestDistance && canGhostEnter(row + ROW_STEPS[step], col + COL_STEPS[step], true)) {
+                    best = step;
+                    bestDistance = distance;
+                }
+            }
+        } else if (mode == GhostMode.FRIGHTENED) {
+            int bestDistance = flowField.distance(row, col);
+            if (bestDistance != FlowField.UNREACHED) {
+                for (int step = 0; step < ROW_STEPS.length; step++) {
+                    int distance = flowField.distance(row + ROW_STEPS[step], col + COL_STEPS[step]);
+                    if ((distance == FlowField.UNREACHED || distance > bestDistance)
+                            && canGhostEnter(row + ROW_STEPS[step], col + COL_STEPS[step], false)) {
+                        best = step;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        } else {
+            int homeRow = (ghost & 1) == 0 ? 0 : getRowCount() - 1;
+            int homeCol = (ghost & 2) == 0 ? 0 : getColumnCount() - 1;
+            int bestDistance = Math.abs(homeRow - row) + Math.abs(homeCol - col);
+            for (int step = 0; step < ROW_STEPS.length; step++) {
+                int newRow = row + ROW_STEPS[step];
+                int newCol = col + COL_STEPS[step];
+                int distance = Math.abs(homeRow - newRow) + Math.abs(homeCol - newCol);
+                if (distance < bestDistance && canGhostEnter(newRow, newCol, false)) {
+                    best = step;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best >= 0 ? best : wanderStep(ghost, row, col);
+    }
+
+    /**
+     * Hashed rather than drawn from a stream, so it does not depend on the order
+     * ghosts are planned in.
+     */
+    private int wanderStep(int ghost, int row, int col) {
+        int first = (int) (mix(wanderSeed + ticks * 31 + ghost) >>> 62);
+        for (int i = 0; i < ROW_STEPS.length; i++) {
+            int step = (first + i) % ROW_STEPS.length;
+            if (canGhostEnter(row + ROW_STEPS[step], col + COL_STEPS[step], false)) {
+                return step;
+            }
+        }
+        return -1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean canGhostEnter(int row, int col, boolean chasing) {
+        if (!board.contains(row, col)) {
+            return false;
+        }
+        if (row == pacmanRow && col == pacmanCol) {
+            return chasing && !isInvincibleActive();
+        }
+        int index = board.index(row, col);
+        return board.getAt(index) != Cell.WALL && !occupancy.isOccupied(index);
+    }
+
+    void spawnPowerUp() {
+        int index = pickFreeCell(powerUpRandom);
+        if (index < 0) {
+            return;
+        }
+        int powerUpIndex = powerUpRandom.nextInt(POWER_UPS.length);
+        setCell(board.rowOf(index), board.colOf(index), POWER_UPS[powerUpIndex]);
+    }
+
+    /**
+     * Size in bytes of what {@link #writeState(ByteBuffer)} writes.
+     */
+    int stateSize() {
+        return 8 + 4 * 5 + 4 + 3 * 16
+                + 4 + 4 * pickups.length
+                + 4 + 13 * effects.activeCount()
+                + 4 + 9 * ghosts.size();
+    }
+
+    /**
+     * Writes everything but the configuration, the seed and the terrain, which
+     * {@link Snapshot} stores itself.
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(ticks);
+        out.putInt(ticksSincePacmanMove);
+        out.putInt(score);
+        out.putInt(lives);
+        out.putInt(pacmanRow);
+        out.putInt(pacmanCol);
+        out.put((byte) pacmanDirection.ordinal());
+        out.put((byte) pacmanCell.ordinal());
+        out.put((byte) (pacmanMouthOpen ? 1 : 0));
+        out.put((byte) (gameOver ? 1 : 0));
+        for (SplitMix64 random : new SplitMix64[]{terrainRandom, placementRandom, powerUpRandom}) {
+            out.putLong(random.getSeed());
+            out.putLong(random.getGamma());
+        }
+
+        out.putInt(pickups.length);
+        for (int count : pickups) {
+            out.putInt(count);
+        }
+
+        out.putInt(effects.activeCount());
+        effects.forEachActive((entity, type, remainingTicks) -> {
+            out.putInt(entity);
+            out.put((byte) type.ordinal());
+            out.putLong(remainingTicks);
+        });
+
+        int count = ghosts.size();
+        out.putInt(count);
+        out.asIntBuffer().put(ghosts.rows, 0, count);
+        out.position(out.position() + 4 * count);
+        out.asIntBuffer().put(ghosts.cols, 0, count);
+        out.position(out.position() + 4 * count);
+        out.put(ghosts.modes, 0, count);
+    }
+
+    /**
+     * Rebuilds an engine from the output of {@link #writeState(ByteBuffer)}
+     * and the terrain bytes, without generating a board.
+     */
+    static GameEngine restore(GameConfig config, long seed, ByteBuffer state, ByteBuffer terrain) {
+        GameEngine engine = new GameEngine(config, seed, false);
+        terrain.get(engine.board.rawCells());
+        engine.board.reindex();
+        engine.readState(state);
+        return engine;
+    }
+
+    private void readState(ByteBuffer in) {
+        ticks = in.getLong();
+        ticksSincePacmanMove = in.getInt();
+        score = in.getInt();
+        lives = in.getInt();
+        pacmanRow = in.getInt();
+        pacmanCol = in.getInt();
+        pacmanDirection = Direction.values()[in.get()];
+        pacmanCell = Cell.values()[in.get()];
+        pacmanMouthOpen = in.get() != 0;
+        gameOver = in.get() != 0;
+        for (SplitMix64 random : new SplitMix64[]{terrainRandom, placementRandom, powerUpRandom}) {
+            random.setState(in.getLong(), in.getLong());
+        }
+
+        int kinds = in.getInt();
+        for (int i = 0; i < kinds; i++) {
+            pickups[i] = in.getInt();
+        }
+
+        int active = in.getInt();
+        for (int i = 0; i < active; i++) {
+            int entity = in.getInt();
+            EffectType type = EffectType.values()[in.get()];
+            effects.apply(entity, type, in.getLong());
+        }
+
+        int count = in.getInt();
+        if (count > ghosts.capacity()) {
+            throw new IllegalArgumentException("Snapshot holds " + count + " ghosts, configured for " + ghosts.capacity());
+        }
+        int[] rows = new int[count];
+        int[] cols = new int[count];
+        in.asIntBuffer().get(rows);
+        in.position(in.position() + 4 * count);
+        in.asIntBuffer().get(cols);
+        in.position(in.position() + 4 * count);
+        for (int i = 0; i < count; i++) {
+            int ghost = ghosts.add(rows[i], cols[i]);
+            ghosts.modes[ghost] = in.get();
+            occupancy.place(board.index(rows[i], cols[i]), EffectScheduler.ghost(ghost));
+        }
+        occupancy.place(board.index(pacmanRow, pacmanCol), EffectScheduler.PACMAN);
+    }
+
+    /**
+     * The terrain, one {@link Cell} ordinal per cell in row-major order.
+     */
+    byte[] terrain() {
+        return board.rawCells();
+    }
+
+    public void setDirection(Direction direction) {
+        pacmanDirection = direction;
+    }
+
+    public EffectScheduler getEffects() {
+        return effects;
+    }
+
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * How many power-ups of the given kind Pacman has picked up this game.
+     */
+    public int getPickups(Cell powerUp) {
+        return pickups[powerUp.ordinal()];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Direction getPacmanDirection() {
+        return pacmanDirection;
+    }
+
+    public int getRowCount() {
+        return board.getRowCount();
+    }
+
+    public int getColumnCount() {
+        return board.getColumnCount();
+    }
+
+    /**
+     * What is seen on a cell: the entity on it if any, else its terrain.
+     */
+    public Cell getCell(int row, int col) {
+        int index = board.index(row, col);
+        if (occupancy.isOccupied(index)) {
+            return occupancy.entityAt(index) == EffectScheduler.PACMAN ? pacmanCell : Cell.GHOST;
+        }
+        return board.getAt(index);
+    }
+
+    /**
+     * Sets the terrain of a cell; entities are not affected.
+     */
+    public void setCell(int row, int col, Cell cell) {
+        board.set(row, col, cell);
+        markDirty(row, col);
+        if (terrainListener != null) {
+            dirtyTerrain.add(row, col);
+        }
+        if (terrainJournal != null) {
+            terrainJournal.add(row, col);
+        }
+    }
+
+    /**
+     * Starts recording which terrain cells change, for {@link AutoSave};
+     * entity moves are not recorded.
+     */
+    void journalTerrain() {
+        if (terrainJournal == null) {
+            terrainJournal = new DirtyCells(board.getColumnCount());
+        }
+    }
+
+    /**
+     * Hands the terrain cells changed since the last call to
+     * {@code listener}, one run of a row at a time.
+     */
+    void drainTerrainJournal(CellListener listener) {
+        if (terrainJournal != null && !terrainJournal.isEmpty()) {
+            terrainJournal.drain(listener);
+        }
+    }
+
+    private void markDirty(int row, int col) {
+        if (cellListener != null) {
+            dirtyCells.add(row, col);
+        }
+    }
+
+    public int getPacmanRow() {
+        return pacmanRow;
+    }
+
+    public int getPacmanCol() {
+        return pacmanCol;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public Ghosts getGhosts() {
+        return ghosts;
+    }
+
+    public Occupancy getOccupancy() {
+        return occupancy;
+    }
+
+    public boolean isSpeedBoostActive() {
+        return effects.isActive(EffectScheduler.PACMAN, EffectType.SPEED_BOOST);
+    }
+
+    public boolean isInvincibleActive() {
+        return effects.isActive(EffectScheduler.PACMAN, EffectType.INVINCIBLE);
+    }
+
+    public boolean canDestroyWalls() {
+        return effects.isActive(EffectScheduler.PACMAN, EffectType.DESTROY_WALL);
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,312 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many headless {@link GameSession}s in one process, ticked in batches
+ * on a shared fork/join pool. Run {@code java GameHost} for a load test.
+ */
+public class GameHost {
+
+    public interface StateListener {
+        /**
+         * Called on a pool thread after every round of each session.
+         */
+        void onState(SessionState state);
+    }
+
+    private static final int SESSIONS_PER_TASK = 16;
+    private static final int MAX_CATCH_UP_TICKS = 10;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(GameEngine.TICK_MILLIS);
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java GameHost [options]",
+            "  --sessions N           sessions kept running (default 1000)",
+            "  --seconds N            length of the run in real seconds (default 10)",
+            "  --threads N            pool threads (default all cores)",
+            "  --policy NAME          random or cautious (default cautious)",
+            "  --seed S               base seed (default random)",
+            "  --size N               board size (default 20)",
+            "  --ghosts N             ghosts per board (default 5)",
+            "  --time-scale X         game seconds per real second (default 1)",
+            "  --max-speed            tick as fast as possible instead of in real time",
+            "  --stream               print every session state as CSV");
+
+    private final GameClock clock;
+    private final GameLoop loop;
+    private final ForkJoinPool pool;
+
+    private final List<GameSession> open = new ArrayList<>();
+    private volatile GameSession[] sessions = new GameSession[0];
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * A host on {@code clock}: with a real-time clock, {@link #start()} runs
+     * it; with a manual one, call {@link #step()}.
+     */
+    public GameHost(int threads, GameClock clock) {
+        this.clock = clock;
+        this.pool = new ForkJoinPool(threads);
+        this.loop = new GameLoop(clock, TICK_NANOS, MAX_CATCH_UP_TICKS, this::runRound);
+    }
+
+    public GameSession open(GameConfig config, long seed, PacmanPolicy policy, StateListener listener) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), config, seed, policy, listener);
+        synchronized (open) {
+            open.add(session);
+            sessions = open.toArray(new GameSession[0]);
+        }
+        return session;
+    }
+
+    public void close(GameSession session) {
+        session.close();
+        synchronized (open) {
+            if (open.remove(session)) {
+                sessions = open.toArray(new GameSession[0]);
+            }
+        }
+    }
+
+    public void start() {
+        loop.start();
+    }
+
+    public void stop() {
+        loop.stop();
+        pool.shutdown();
+    }
+
+    /**
+     * Advances a manual clock by one tick and runs the round.
+     */
+    public int step() {
+        clock.advance(TICK_NANOS);
+        return loop.pump();
+    }
+
+    private void runRound(int dueTicks, long dueGameNanos) {
+        long behind = (long) (Math.max(0, clock.nanos() - dueGameNanos) / clock.getTimeScale());
+        long dueNanos = clock.isManual() ? System.nanoTime() : System.nanoTime() - behind;
+        GameSession[] round = sessions;
+        pool.invoke(new Round(round, 0, round.length, dueTicks, dueNanos));
+
+        boolean ended = false;
+        for (GameSession session : round) {
+            ended |= session.isFinished();
+        }
+        if (ended) {
+            synchronized (open) {
+                int before = open.size();
+                open.removeIf(GameSession::isFinished);
+                finished.add(before - open.size());
+                sessions = open.toArray(new GameSession[0]);
+            }
+        }
+    }
+
+    private class Round extends RecursiveAction {
+        private final GameSession[] round;
+        private final int from;
+        private final int to;
+        private final int dueTicks;
+        private final long dueNanos;
+
+        Round(GameSession[] round, int from, int to, int dueTicks, long dueNanos) {
+            this.round = round;
+            this.from = from;
+            this.to = to;
+            this.dueTicks = dueTicks;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SESSIONS_PER_TASK) {
+                long ran = 0;
+                for (int i = from; i < to; i++) {
+                    GameSession session = round[i];
+                    if (session.isFinished()) {
+                        continue;
+                    }
+                    long before = session.getState().getTick();
+                    latency.record(session.advance(dueTicks, dueNanos));
+                    ran += session.getState().getTick() - before;
+                }
+                ticks.add(ran);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Round(round, from, middle, dueTicks, dueNanos), new Round(round, middle, to, dueTicks, dueNanos));
+            }
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.length;
+    }
+
+    /**
+     * Sessions that ended in game over since the host started.
+     */
+    public long getFinishedCount() {
+        return finished.sum();
+    }
+
+    /**
+     * Session ticks run so far, summed over all sessions.
+     */
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    /**
+     * Ticks run late, to catch up after a round that fell behind.
+     */
+    public long getLateTicks() {
+        return loop.getLateTicks();
+    }
+
+    public long getDroppedTicks() {
+        return loop.getDroppedTicks();
+    }
+
+    public LatencySummary getLatency() {
+        return LatencySummary.of(latency);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int target = 1000;
+        int seconds = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String policyName = "cautious";
+        long seed = new SplittableRandom().nextLong();
+        GameConfig config = GameConfig.DEFAULT;
+        double timeScale = 1;
+        boolean maxSpeed = false;
+        boolean stream = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--max-speed")) {
+                    maxSpeed = true;
+                    continue;
+                }
+                if (option.equals("--stream")) {
+                    stream = true;
+                    continue;
+                }
+                if (option.equals("--help") || i + 1 >= args.length) {
+                    System.err.println(USAGE);
+                    System.exit(option.equals("--help") ? 0 : 2);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--sessions":
+                        target = Integer.parseInt(value);
+                        break;
+                    case "--seconds":
+                        seconds = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--policy":
+                        policyName = value;
+                        PacmanPolicy.forName(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--size":
+                        config = config.withSize(Integer.parseInt(value));
+                        break;
+                    case "--ghosts":
+                        config = config.withGhosts(Integer.parseInt(value));
+                        break;
+                    case "--time-scale":
+                        timeScale = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        StateListener listener = null;
+        if (stream) {
+            out.println("session,tick,score,lives,row,col,direction,game_over");
+            listener = state -> {
+                synchronized (out) {
+                    out.println(state.toCsv());
+                }
+            };
+        }
+
+        GameClock clock = maxSpeed ? GameClock.manual() : GameClock.realTime();
+        if (!maxSpeed) {
+            clock.setTimeScale(timeScale);
+        }
+        GameHost host = new GameHost(threads, clock);
+        long opened = 0;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long lastTicks = 0;
+        long lastReport = start;
+        if (!maxSpeed) {
+            host.start();
+        }
+        while (System.nanoTime() < end) {
+            // Keep the load constant: replace the sessions that ended.
+            while (host.getSessionCount() < target) {
+                long sessionSeed = new SplittableRandom(seed + opened++).nextLong();
+                host.open(config, sessionSeed, PacmanPolicy.forName(policyName), listener);
+            }
+            if (maxSpeed) {
+                host.step();
+            } else {
+                Thread.sleep(50);
+            }
+            long now = System.nanoTime();
+            if (now - lastReport >= TimeUnit.SECONDS.toNanos(1)) {
+                long total = host.getTicks();
+                LatencySummary latency = host.getLatency();
+                System.err.printf(Locale.ROOT, "%5.1f s: %d sessions, %d finished, %.0f ticks/s, latency p50 %.0f us p99 %.0f us max %.0f us%n",
+                        (now - start) / 1e9, host.getSessionCount(), host.getFinishedCount(),
+                        (total - lastTicks) / ((now - lastReport) / 1e9), latency.getP50(), latency.getP99(), latency.getMax());
+                lastTicks = total;
+                lastReport = now;
+            }
+        }
+        host.stop();
+        synchronized (out) {
+            out.flush();
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        LatencySummary latency = host.getLatency();
+        System.err.printf(Locale.ROOT, "%d sessions opened, %d ticks in %.1f s on %d threads: %.0f ticks/s, %d ticks late, %d ticks dropped%n",
+                opened, host.getTicks(), elapsed, threads, host.getTicks() / elapsed, host.getLateTicks(), host.getDroppedTicks());
+        System.err.printf(Locale.ROOT, "Round latency (us): mean %.0f, p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, max %.0f%n",
+                latency.getMean(), latency.getP50(), latency.getP90(), latency.getP99(), latency.getP999(), latency.getMax());
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the game at a fixed timestep read from a {@link GameClock}. When it
+ * falls behind, up to {@code maxCatchUpTicks} ticks run in one batch and the
+ * rest are dropped.
+ */
+public class GameLoop {
+
+    public interface TickHandler {
+        /**
+         * @param ticks   number of ticks that came due
+         * @param dueNanos game time at which the last of them came due
+         */
+        void onTicks(int ticks, long dueNanos);
+    }
+
+    private final GameClock clock;
+    private final long tickNanos;
+    private final int maxCatchUpTicks;
+    private final TickHandler handler;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong lateTicks = new AtomicLong();
+    private final AtomicLong droppedTicks = new AtomicLong();
+    private long nextTickNanos;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GameLoop(GameClock clock, long tickNanos, int maxCatchUpTicks, TickHandler handler) {
+        this.clock = clock;
+        this.tickNanos = tickNanos;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.handler = handler;
+        this.nextTickNanos = clock.nanos() + tickNanos;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            pump();
+            LockSupport.parkNanos(Math.min(clock.realNanosUntil(nextTickNanos), tickNanos));
+        }
+    }
+
+    /**
+     * Hands every tick that is due by the clock's current time to the handler
+     * and returns how many that was.
+     */
+    public int pump() {
+        long now = clock.nanos();
+        if (now < nextTickNanos) {
+            return 0;
+        }
+        long due = (now - nextTickNanos) / tickNanos + 1;
+        long lastDue = nextTickNanos + (due - 1) * tickNanos;
+        nextTickNanos = lastDue + tickNanos;
+        if (due > 1) {
+            lateTicks.addAndGet(due - 1);
+        }
+        if (due > maxCatchUpTicks) {
+            droppedTicks.addAndGet(due - maxCatchUpTicks);
+            due = maxCatchUpTicks;
+        }
+        ticks.addAndGet(due);
+        handler.onTicks((int) due, lastDue);
+        return (int) due;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    public long getLateTicks() {
+        return lateTicks.get();
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks.get();
+    }
+}
@@ -0,0 +1,133 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Process-wide runtime metrics, exposed over JMX.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    public static final String OBJECT_NAME = "pacman:type=GameMetrics";
+
+    private static GameMetrics instance;
+
+    private final LatencyHistogram pacmanMove = new LatencyHistogram();
+    private final LatencyHistogram ghostMove = new LatencyHistogram();
+    private final LatencyHistogram powerUpSpawn = new LatencyHistogram();
+    private final LatencyHistogram edtLag = new LatencyHistogram();
+    private final LatencyHistogram boardRepaint = new LatencyHistogram();
+    private final LatencyHistogram scoreIo = new LatencyHistogram();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private volatile GameLoop gameLoop;
+
+    /**
+     * Returns the shared instance, registering it with the platform MBean
+     * server on first use.
+     */
+    public static synchronized GameMetrics get() {
+        if (instance == null) {
+            instance = new GameMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reports the tick counters of {@code gameLoop} from now on.
+     */
+    public void setGameLoop(GameLoop gameLoop) {
+        this.gameLoop = gameLoop;
+    }
+
+    public LatencyHistogram pacmanMove() {
+        return pacmanMove;
+    }
+
+    public LatencyHistogram ghostMove() {
+        return ghostMove;
+    }
+
+    public LatencyHistogram powerUpSpawn() {
+        return powerUpSpawn;
+    }
+
+    public LatencyHistogram edtLag() {
+        return edtLag;
+    }
+
+    public LatencyHistogram boardRepaint() {
+        return boardRepaint;
+    }
+
+    public LatencyHistogram scoreIo() {
+        return scoreIo;
+    }
+
+    @Override
+    public LatencySummary getPacmanMove() {
+        return LatencySummary.of(pacmanMove);
+    }
+
+    @Override
+    public LatencySummary getGhostMove() {
+        return LatencySummary.of(ghostMove);
+    }
+
+    @Override
+    public LatencySummary getPowerUpSpawn() {
+        return LatencySummary.of(powerUpSpawn);
+    }
+
+    @Override
+    public LatencySummary getEdtLag() {
+        return LatencySummary.of(edtLag);
+    }
+
+    @Override
+    public LatencySummary getBoardRepaint() {
+        return LatencySummary.of(boardRepaint);
+    }
+
+    @Override
+    public LatencySummary getScoreIo() {
+        return LatencySummary.of(scoreIo);
+    }
+
+    @Override
+    public long getLoopTicks() {
+        GameLoop loop = gameLoop;
+        return loop != null ? loop.getTicks() : 0;
+    }
+
+    @Override
+    public long getLateTicks() {
+        GameLoop loop = gameLoop;
+        return loop != null ? loop.getLateTicks() : 0;
+    }
+
+    @Override
+    public long getDroppedTicks() {
+        GameLoop loop = gameLoop;
+        return loop != null ? loop.getDroppedTicks() : 0;
+    }
+
+    @Override
+    public int getLiveThreadCount() {
+        return threads.getThreadCount();
+    }
+
+    @Override
+    public void reset() {
+        pacmanMove.reset();
+        ghostMove.reset();
+        powerUpSpawn.reset();
+        edtLag.reset();
+        boardRepaint.reset();
+        scoreIo.reset();
+    }
+}
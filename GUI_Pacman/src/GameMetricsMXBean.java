@@ -0,0 +1,28 @@
+/**
+ * Management interface of {@link GameMetrics}, registered as
+ * {@code pacman:type=GameMetrics}. Durations are in microseconds.
+ */
+public interface GameMetricsMXBean {
+
+    LatencySummary getPacmanMove();
+
+    LatencySummary getGhostMove();
+
+    LatencySummary getPowerUpSpawn();
+
+    LatencySummary getEdtLag();
+
+    LatencySummary getBoardRepaint();
+
+    LatencySummary getScoreIo();
+
+    long getLoopTicks();
+
+    long getLateTicks();
+
+    long getDroppedTicks();
+
+    int getLiveThreadCount();
+
+    void reset();
+}
@@ -0,0 +1,81 @@
+import java.util.SplittableRandom;
+
+/**
+ * One headless game running on a {@link GameHost}, driven by a
+ * {@link PacmanPolicy} or by {@link #steer(Direction)} from any thread.
+ */
+public class GameSession {
+
+    private final int id;
+    private final GameEngine engine;
+    private final PacmanPolicy policy;
+    private final SplittableRandom random;
+    private final GameHost.StateListener listener;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private volatile Direction steering;
+    private volatile SessionState state;
+    private volatile boolean closed = false;
+
+    GameSession(int id, GameConfig config, long seed, PacmanPolicy policy, GameHost.StateListener listener) {
+        this.id = id;
+        this.engine = new GameEngine(config, seed);
+        this.policy = policy;
+        this.random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        this.listener = listener;
+        this.state = new SessionState(id, engine);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void steer(Direction direction) {
+        steering = direction;
+    }
+
+    /**
+     * The state published after the last round.
+     */
+    public SessionState getState() {
+        return state;
+    }
+
+    /**
+     * Delay from the moment a round was due until this session had published
+     * its state for it.
+     */
+    public LatencySummary getLatency() {
+        return LatencySummary.of(latency);
+    }
+
+    public boolean isFinished() {
+        return closed || state.isGameOver();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Runs up to {@code ticks} ticks and publishes the state. Returns the time
+     * from {@code dueNanos} to publication.
+     */
+    long advance(int ticks, long dueNanos) {
+        for (int i = 0; i < ticks && !engine.isGameOver(); i++) {
+            Direction direction = policy != null ? policy.choose(engine, random) : steering;
+            if (direction != null) {
+                engine.setDirection(direction);
+            }
+            engine.tick();
+        }
+        SessionState published = new SessionState(id, engine);
+        state = published;
+        if (listener != null) {
+            listener.onState(published);
+        }
+        long nanos = System.nanoTime() - dueNanos;
+        latency.record(nanos);
+        return nanos;
+    }
+}
@@ -1,90 +1,101 @@
 import javax.swing.*;
-import javax.swing.table.AbstractTableModel;
-import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class GameWindow extends JFrame implements Serializable {
+public class GameWindow extends JFrame {
 
-    private JTable gameTable;
-    private CustomTableModel tableModel;
+    private BoardView boardView;
+    private MiniMap miniMap;
 
-    private int pacmanRow;
-    private int pacmanCol;
+    private static final long AUTOSAVE_TICKS = 5000 / GameEngine.TICK_MILLIS;
+    private static final int AUTOSAVE_DELTAS_PER_BASE = 60;
 
-    private Direction pacmanDirection = Direction.NONE;
-    private boolean pacmanMouthOpen = false;
+    private GameEngine engine;
+    private Replay replay;
+    private AutoSave autoSave;
 
     private JLabel livesLabel;
     private JLabel scoreLabel;
     private JLabel timeLabel;
 
-    private int score = 0;
+    private GameClock clock;
 
-    private MyTimer gameTimer;
+    private GameLoop gameLoop;
+    private final AtomicInteger pendingTicks = new AtomicInteger();
+    private volatile long ticksPostedAt;
+    private final GameMetrics metrics = GameMetrics.get();
 
-    private int[][] ghostPositions = new int[5][2];
 
-    private int lives = 3;
-
-    private Thread pacmanMovementThread;
-
-    private boolean speedBoostActive = false;
-    private int speedBoostDuration = 0;
-
-    private boolean invincibleActive = false;
-    private int invincibleDuration = 0;
+    public GameWindow(int size, int ghosts) {
+        this(ThreadLocalRandom.current().nextLong(), size, ghosts);
+    }
 
-    private boolean canDestroyWalls = false;
-    private int wallDestroyingDuration = 0;
+    private GameWindow(long seed, int size, int ghosts) {
+        this(new GameEngine(size, ghosts, seed), new Replay(size, ghosts, seed), 0);
+    }
 
+    /**
+     * Resumes a saved game. Its replay cannot be recorded, since a replay
+     * starts from the seed.
+     */
+    public GameWindow(Snapshot snapshot) {
+        this(snapshot.getEngine(), null, snapshot.getClockNanos());
+    }
 
-    public GameWindow(int size) {
+    private GameWindow(GameEngine engine, Replay replay, long clockNanos) {
         setTitle("Pacman Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        tableModel = new CustomTableModel(size);
-        gameTable = new JTable(tableModel);
+        this.engine = engine;
+        this.replay = replay;
+        engine.setMetrics(metrics);
         int cellSize = 20;
-        Dimension tableSize = new Dimension(size * cellSize, size * cellSize);
-        gameTable.setPreferredScrollableViewportSize(tableSize);
-        gameTable.setFillsViewportHeight(true);
-
-        JScrollPane scrollPane = new JScrollPane(gameTable);
-        add(scrollPane);
-
-        gameTable.setDefaultRenderer(Cell.class, new CellRenderer());
-
-        placePacman();
-        gameTable.repaint();
+        boardView = new BoardView(engine, cellSize);
+        miniMap = new MiniMap(engine, boardView);
+        engine.setCellListener(boardView);
+        engine.setTerrainListener(miniMap);
 
-        gameTimer = new MyTimer();
+        add(boardView);
+        JPanel sidePanel = new JPanel(new BorderLayout());
+        sidePanel.add(miniMap, BorderLayout.NORTH);
+        getContentPane().add(sidePanel, BorderLayout.EAST);
 
-        gameTable.addKeyListener(new KeyAdapter() {
+        boardView.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
                 int keyCode = e.getKeyCode();
                 switch (keyCode) {
                     case KeyEvent.VK_UP:
-                        pacmanDirection = Direction.UP;
+                        steer(Direction.UP);
                         break;
                     case KeyEvent.VK_DOWN:
-                        pacmanDirection = Direction.DOWN;
+                        steer(Direction.DOWN);
                         break;
                     case KeyEvent.VK_LEFT:
-                        pacmanDirection = Direction.LEFT;
+                        steer(Direction.LEFT);
                         break;
                     case KeyEvent.VK_RIGHT:
-                        pacmanDirection = Direction.RIGHT;
+                        steer(Direction.RIGHT);
+                        break;
+                    case KeyEvent.VK_P:
+                        togglePause();
+                        break;
+                    case KeyEvent.VK_S:
+                        if (e.isControlDown()) {
+                            saveSnapshot();
+                        }
                         break;
                 }
                 if ((e.getKeyCode() == KeyEvent.VK_Q) && e.isControlDown() && e.isShiftDown()) {
+                    gameLoop.stop();
+                    closeAutoSave(true);
+                    saveReplay();
                     serializeScore();
                     MainMenu mainMenu = new MainMenu();
                     mainMenu.setVisible(true);
@@ -95,12 +106,10 @@ public class GameWindow extends JFrame implements Serializable {
             }
         });
 
-        initializePacmanMovement();
-
         JPanel statusPanel = new JPanel();
         statusPanel.setLayout(new GridLayout(1, 3));
 
-        livesLabel = new JLabel("Lives: " + lives);
+        livesLabel = new JLabel("Lives: " + engine.getLives());
         scoreLabel = new JLabel("Score: 0");
         timeLabel = new JLabel("Time: 0");
 
@@ -112,50 +121,45 @@ public class GameWindow extends JFrame implements Serializable {
 
         getContentPane().add(statusPanel, BorderLayout.SOUTH);
 
-        startPacmanAnimation();
+        startAutoSave(clockNanos);
+        startGameLoop(clockNanos);
 
         pack();
         setLocationRelativeTo(null);
         setVisible(true);
+        boardView.requestFocusInWindow();
     }
 
-    private void initializePacmanMovement() {
-        pacmanMovementThread = new Thread(() -> {
-            while (true) {
-                try {
-                    if (speedBoostActive) {
-                        Thread.sleep(150);
-                    } else {
-                        Thread.sleep(300);
-                    }
-                    SwingUtilities.invokeLater(this::updatePacmanPosition);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        pacmanMovementThread.start();
+    private void steer(Direction direction) {
+        if (replay != null) {
+            replay.record(engine.getTicks(), direction);
+        }
+        engine.setDirection(direction);
     }
 
-    private void updatePacmanPosition() {
-        if (pacmanDirection != Direction.NONE) {
-            if (speedBoostActive && speedBoostDuration > 0) {
-                speedBoostDuration -= 300;
-            } else {
-                speedBoostActive = false;
-            }
-            if (invincibleActive && invincibleDuration > 0) {
-                invincibleDuration -= 300;
-            } else {
-                invincibleActive = false;
-            }
-            if (canDestroyWalls && wallDestroyingDuration > 0) {
-                wallDestroyingDuration -= 300;
-            } else {
-                canDestroyWalls = false;
-            }
-            movePacman();
+    private void saveReplay() {
+        if (replay == null) {
+            return;
+        }
+        replay.finish(engine.getTicks(), engine.getScore());
+        try {
+            System.err.println("Replay saved to " + replay.save());
+        } catch (IOException e) {
+            System.err.println("Could not save the replay: " + e);
+        }
+    }
+
+    private void updateStatus() {
+        updateLives(engine.getLives());
+        updateScore(engine.getScore());
+        if (engine.isGameOver() && gameLoop.isRunning()) {
+            gameLoop.stop();
+            closeAutoSave(true);
+            saveReplay();
+            serializeScore();
+            dispose();
+            MainMenu mainMenu = new MainMenu();
+            mainMenu.setVisible(true);
         }
     }
 
@@ -168,435 +172,113 @@ public class GameWindow extends JFrame implements Serializable {
     }
 
     private void updateTime() {
-        long elapsedTime = gameTimer.getElapsedTime();
-        int seconds = (int) (elapsedTime / 1000);
-        timeLabel.setText("Time: " + seconds + "s");
+        int seconds = (int) (clock.millis() / 1000);
+        timeLabel.setText("Time: " + seconds + "s" + (clock.isPaused() ? " (paused)" : ""));
     }
 
-    private void startPacmanAnimation() {
-        Thread pacmanAnimationThread = new Thread(() -> {
-            boolean mouthOpen = false;
-            while (true) {
-                try {
-                    Thread.sleep(300);
-                    mouthOpen = !mouthOpen;
-                    Cell newPacmanState = mouthOpen ? Cell.PACMAN_OPEN : Cell.PACMAN_CLOSED;
-                    SwingUtilities.invokeLater(() -> {
-                        tableModel.setCell(pacmanRow, pacmanCol, newPacmanState);
-                        gameTable.repaint();
-                    });
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        pacmanAnimationThread.start();
-
-        Thread scoreThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(5000);
-                    score += 10;
-                    SwingUtilities.invokeLater(() -> updateScore(score));
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        scoreThread.start();
-
-        Thread timeThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(1000);
-                    updateTime();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        timeThread.start();
-
-            Thread ghostMovementThread = new Thread(() -> {
-                while (true) {
-                    try {
-                        Thread.sleep(500);
-                        SwingUtilities.invokeLater(() -> {
-                            tableModel.moveGhosts();
-                            gameTable.repaint();
-                        });
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
-                }
-            });
-            ghostMovementThread.start();
-
-        Thread powerUpSpawnerThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(5000);
-                    SwingUtilities.invokeLater(() -> tableModel.spawnPowerUp());
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
-        });
-        powerUpSpawnerThread.start();
-
-
-        gameTimer.start();
-    }
-
-    private void movePacman() {
-        int newRow = pacmanRow;
-        int newCol = pacmanCol;
-
-        switch (pacmanDirection) {
-            case UP:
-                newRow--;
-                break;
-            case DOWN:
-                newRow++;
-                break;
-            case LEFT:
-                newCol--;
-                break;
-            case RIGHT:
-                newCol++;
-                break;
-            default:
-                break;
-        }
-
-        if (newRow >= 0 && newRow < tableModel.getRowCount() &&
-                newCol >= 0 && newCol < tableModel.getColumnCount()) {
-            Cell cell = tableModel.getCell(newRow, newCol);
-
-            if (isPowerUp(cell)) {
-                applyPowerUp(cell);
-                tableModel.setCell(newRow, newCol, Cell.EMPTY);
-            }
-
-            if (canDestroyWalls && cell == Cell.WALL) {
-                tableModel.setCell(pacmanRow, pacmanCol, Cell.EMPTY);
-                pacmanRow = newRow;
-                pacmanCol = newCol;
-            }
-
-            if (cell == Cell.EMPTY || cell == Cell.GHOST) {
-                tableModel.setCell(pacmanRow, pacmanCol, Cell.EMPTY);
-                pacmanRow = newRow;
-                pacmanCol = newCol;
-
-                if (cell == Cell.GHOST) {
-                    loseLifeAndRespawn();
-                }
-            }
+    private void togglePause() {
+        if (clock.isPaused()) {
+            clock.resume();
+        } else {
+            clock.pause();
         }
-
-        tableModel.setCell(pacmanRow, pacmanCol, pacmanMouthOpen ? Cell.PACMAN_OPEN : Cell.PACMAN_CLOSED);
-
-        Rectangle oldRect = gameTable.getCellRect(pacmanRow, pacmanCol, false);
-        Rectangle newRect = gameTable.getCellRect(pacmanRow, pacmanCol, false);
-
-        gameTable.repaint(oldRect.union(newRect));
-    }
-
-    private boolean isPowerUp(Cell cell) {
-        return cell == Cell.SPEED_BOOST || cell == Cell.INVINCIBLE ||
-                cell == Cell.DESTROY_WALL || cell == Cell.EXTRA_LIFE ||
-                cell == Cell.EXTRA_SCORE;
+        updateTime();
     }
 
-    private void applyPowerUp(Cell powerUp) {
-        switch (powerUp) {
-            case SPEED_BOOST:
-                speedBoostActive = true;
-                speedBoostDuration = 10000;
-                System.out.println("speed boost");
-                break;
-            case INVINCIBLE:
-                invincibleActive = true;
-                invincibleDuration = 10000;
-                System.out.println("invincible");
-                break;
-            case DESTROY_WALL:
-                canDestroyWalls = true;
-                wallDestroyingDuration = 7000;
-                System.out.println("wall destroying");
-                break;
-            case EXTRA_LIFE:
-                lives++;
-                updateLives(lives);
-                System.out.println("extra life");
-                break;
-            case EXTRA_SCORE:
-                score += 15;
-                updateScore(score);
-                System.out.println("extra score");
-                break;
+    /**
+     * Checkpoints the game every five seconds of game time into
+     * {@link AutoSave#directoryFor(long)}; a crashed game can be resumed from
+     * there through "Load Game".
+     */
+    private void startAutoSave(long clockNanos) {
+        try {
+            autoSave = new AutoSave(engine, AutoSave.directoryFor(engine.getSeed()), clockNanos,
+                    AUTOSAVE_TICKS, AUTOSAVE_DELTAS_PER_BASE);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
-    private void loseLifeAndRespawn() {
-        if (!invincibleActive) {
-            lives--;
-            updateLives(lives);
-            if (lives > 0) {
-                placePacman();
-            } else {
-                serializeScore();
-                dispose();
-                MainMenu mainMenu = new MainMenu();
-                mainMenu.setVisible(true);
-            }
+    private void closeAutoSave(boolean discard) {
+        if (autoSave != null) {
+            autoSave.close(discard);
         }
     }
 
-    private void placePacman() {
-        do {
-            pacmanRow = (int) (Math.random() * tableModel.getRowCount());
-            pacmanCol = (int) (Math.random() * tableModel.getColumnCount());
-        } while (tableModel.getCell(pacmanRow, pacmanCol) != Cell.EMPTY);
-        tableModel.setCell(pacmanRow, pacmanCol, Cell.PACMAN);
-    }
-
-    public class CustomTableModel extends AbstractTableModel {
-        private Cell[][] board;
-
-        public CustomTableModel(int size) {
-            board = new Cell[size][size];
-            initializeBoard();
-        }
-
-        private void initializeBoard() {
-            for (int i = 0; i < board.length; i++) {
-                for (int j = 0; j < board[i].length; j++) {
-                    board[i][j] = Math.random() < 0.2 ? Cell.WALL : Cell.EMPTY;
-                }
-            }
-            for (int i = 0; i < ghostPositions.length; i++) {
-                placeGhost(i);
-            }
-        }
-
-        private void placeGhost(int ghostIndex) {
-            int row, col;
-            do {
-                row = (int) (Math.random() * board.length);
-                col = (int) (Math.random() * board[0].length);
-            } while (board[row][col] != Cell.EMPTY);
-            board[row][col] = Cell.GHOST;
-            ghostPositions[ghostIndex][0] = row;
-            ghostPositions[ghostIndex][1] = col;
-        }
-
-        private void moveGhosts() {
-            for (int i = 0; i < ghostPositions.length; i++) {
-                int row = ghostPositions[i][0];
-                int col = ghostPositions[i][1];
-
-                board[row][col] = Cell.EMPTY;
-
-                int newRow = row + (Math.random() < 0.5 ? -1 : 1);
-                int newCol = col + (Math.random() < 0.5 ? -1 : 1);
-
-                if (newRow >= 0 && newRow < board.length &&
-                        newCol >= 0 && newCol < board[0].length &&
-                        board[newRow][newCol] == Cell.EMPTY) {
-                    ghostPositions[i][0] = newRow;
-                    ghostPositions[i][1] = newCol;
-                }
-
-                board[ghostPositions[i][0]][ghostPositions[i][1]] = Cell.GHOST;
-            }
-            fireTableDataChanged();
-        }
-
-        private void spawnPowerUp() {
-            Cell[] powerUps = {Cell.SPEED_BOOST, Cell.INVINCIBLE, Cell.DESTROY_WALL, Cell.EXTRA_LIFE, Cell.EXTRA_SCORE};
-            int powerUpIndex = (int) (Math.random() * powerUps.length);
-
-            int row, col;
-            do {
-                row = (int) (Math.random() * board.length);
-                col = (int) (Math.random() * board[0].length);
-            } while (board[row][col] != Cell.EMPTY);
-
-            board[row][col] = powerUps[powerUpIndex];
-            fireTableCellUpdated(row, col);
-        }
-
-
-
-        @Override
-        public int getRowCount() {
-            return board.length;
-        }
-
-        @Override
-        public int getColumnCount() {
-            return board[0].length;
-        }
-
-        @Override
-        public Object getValueAt(int rowIndex, int columnIndex) {
-            return board[rowIndex][columnIndex];
-        }
-
-        @Override
-        public Class<?> getColumnClass(int columnIndex) {
-            return Cell.class;
-        }
-
-        public Cell getCell(int row, int col) {
-            return board[row][col];
-        }
-
-        public void setCell(int row, int col, Cell cell) {
-            board[row][col] = cell;
-            fireTableCellUpdated(row, col);
+    /**
+     * Pauses the game and saves it; it stays paused until P is pressed.
+     * Runs on the EDT, so no tick can change the engine during the save.
+     */
+    private void saveSnapshot() {
+        clock.pause();
+        updateTime();
+        try {
+            Path path = Snapshot.save(engine, clock.nanos());
+            JOptionPane.showMessageDialog(this, "Game saved to " + path + ". Press P to continue.");
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not save the game: " + e.getMessage());
         }
     }
 
-    public class CellRenderer extends DefaultTableCellRenderer {
-        private Cell currentState;
-
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            currentState = (Cell) value;
-            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-            setText("");
-            setIcon(null);
-
-            if (currentState == Cell.WALL) {
-                setBackground(Color.blue);
-            } else if (currentState == Cell.EMPTY) {
-                setBackground(Color.black);
-            } else if (currentState == Cell.PACMAN_OPEN || currentState == Cell.PACMAN_CLOSED) {
-                setBackground(Color.BLACK);
-            } else if (currentState == Cell.GHOST) {
-                setBackground(Color.RED);
-            } else {
-                setBackground(Color.black);
-            }
-            return c;
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            g.setColor(getBackground());
-            g.fillRect(0, 0, getWidth(), getHeight());
-
-            if (currentState == Cell.PACMAN_OPEN || currentState == Cell.PACMAN_CLOSED) {
-                drawPacman(g, currentState == Cell.PACMAN_OPEN);
+    /**
+     * Starts the clock at {@code clockNanos} and the loop. The
+     * {@code pacman.timeScale} system property runs the game faster or slower
+     * than real time.
+     */
+    private void startGameLoop(long clockNanos) {
+        clock = GameClock.realTime(clockNanos);
+        clock.setTimeScale(Double.parseDouble(System.getProperty("pacman.timeScale", "1")));
+        gameLoop = new GameLoop(clock, TimeUnit.MILLISECONDS.toNanos(GameEngine.TICK_MILLIS), 10, (ticks, dueNanos) -> {
+            if (pendingTicks.getAndAdd(ticks) == 0) {
+                ticksPostedAt = System.nanoTime();
+                SwingUtilities.invokeLater(this::runPendingTicks);
             }
-            if (currentState == Cell.GHOST) {
-                drawGhost(g);
-            }
-            if (currentState == Cell.SPEED_BOOST || currentState == Cell.INVINCIBLE ||
-                    currentState == Cell.DESTROY_WALL || currentState == Cell.EXTRA_LIFE ||
-                    currentState == Cell.EXTRA_SCORE) {
-                drawPowerUp(g);
-            }
-        }
-
-        private void drawPowerUp(Graphics g) {
-            int diameter = Math.min(getWidth(), getHeight()) - 4;
-            int x = (getWidth() - diameter) / 2;
-            int y = (getHeight() - diameter) / 2;
+        });
+        metrics.setGameLoop(gameLoop);
+        gameLoop.start();
+    }
 
-            g.setColor(Color.GREEN);
-            g.fillOval(x, y, diameter, diameter);
+    private void runPendingTicks() {
+        metrics.edtLag().recordSince(ticksPostedAt);
+        int ticks = pendingTicks.getAndSet(0);
+        if (!gameLoop.isRunning()) {
+            return;
         }
-
-        private void drawGhost(Graphics g) {
-            int diameter = Math.min(getWidth(), getHeight()) - 2;
-            int x = (getWidth() - diameter) / 2;
-            int y = (getHeight() - diameter) / 2;
-
-            // Eyes
-            g.fillOval(x + diameter / 4, y + diameter / 4, diameter / 6, diameter / 6);
-            g.fillOval(x + diameter * 5 / 8, y + diameter / 4, diameter / 6, diameter / 6);
-
-            //Menacing grin
-            g.setColor(Color.BLACK);
-            g.drawLine(x + diameter / 4, y + diameter / 2, x + diameter / 2, y + 3 * diameter / 4);
-            g.drawLine(x + diameter / 2, y + 3 * diameter / 4, x + 3 * diameter / 4, y + diameter / 2);
-
-            //Eyebrows
-            g.drawLine(x + diameter / 4, y + diameter / 4, x + diameter / 2, y + diameter / 4);
-            g.drawLine(x + diameter / 2, y + diameter / 4, x + 3 * diameter / 4, y + diameter / 4);
+        for (int i = 0; i < ticks && !engine.isGameOver(); i++) {
+            engine.tick();
         }
-
-
-        private void drawPacman(Graphics g, boolean mouthOpen) {
-            int diameter = Math.min(getWidth(), getHeight()) - 2;
-            int x = (getWidth() - diameter) / 2;
-            int y = (getHeight() - diameter) / 2;
-
-            g.setColor(Color.YELLOW);
-            g.fillOval(x, y, diameter, diameter);
-
-            if (mouthOpen) {
-                g.setColor(getBackground());
-                int startAngle = -50;
-                int arcAngle = 120;
-
-                if (pacmanDirection == Direction.LEFT) {
-                    startAngle = -245;
-                } else if (pacmanDirection == Direction.UP) {
-                    startAngle = -325;
-                } else if (pacmanDirection == Direction.DOWN) {
-                    startAngle = -153;
-                }
-
-                g.fillArc(x, y, diameter, diameter, startAngle, arcAngle);
-            }
+        engine.flushChanges();
+        if (autoSave != null) {
+            autoSave.tick(clock.nanos());
         }
+        boardView.followPacman();
+        miniMap.repaint();
+        updateTime();
+        updateStatus();
     }
 
-
-
-
-
-    public enum Cell {
-        EMPTY, WALL, PACMAN, GHOST, PACMAN_OPEN, PACMAN_CLOSED, SPEED_BOOST, INVINCIBLE, DESTROY_WALL, EXTRA_LIFE, EXTRA_SCORE
-    }
-
-    public enum Direction {
-        UP, DOWN, LEFT, RIGHT, NONE
+    @Override
+    public void dispose() {
+        if (gameLoop != null) {
+            gameLoop.stop();
+        }
+        closeAutoSave(false);
+        super.dispose();
     }
 
-
     private void serializeScore() {
         String playerName = JOptionPane.showInputDialog(null, "Enter your name:");
-        Player player = new Player(playerName, score);
+        Player player = new Player(playerName != null ? playerName : "", engine.getScore());
 
-        ArrayList<Player> playerArrayList = new ArrayList<>();
         try {
-            HighScore.readFile("score.ser", playerArrayList);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        playerArrayList.add(player);
-
-        try (FileOutputStream fileOut = new FileOutputStream("score.ser");
-             ObjectOutputStream objectOut = new ObjectOutputStream(fileOut)) {
-
-            for (Player p : playerArrayList) {
-                objectOut.writeObject(p);
-            }
-
+            long start = System.nanoTime();
+            ScoreStore store = ScoreStore.open();
+            store.append(player);
+            LeaderboardIndex leaderboard = LeaderboardIndex.open();
+            metrics.scoreIo().recordSince(start);
+            JOptionPane.showMessageDialog(null, String.format("Your score ranks #%d of %d (better than %.0f%% of games).",
+                    leaderboard.rank(player.result), leaderboard.getTotal(), leaderboard.percentile(player.result)));
         } catch (IOException e) {
             e.printStackTrace();
         }
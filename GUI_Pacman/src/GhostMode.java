@@ -0,0 +1,3 @@
+public enum GhostMode {
+    CHASE, SCATTER, FRIGHTENED
+}
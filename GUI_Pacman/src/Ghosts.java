@@ -0,0 +1,46 @@
+/**
+ * Ghost state kept as parallel primitive arrays, one slot per ghost.
+ */
+public class Ghosts {
+
+    final int[] rows;
+    final int[] cols;
+    final byte[] modes;
+    final int[] targets;
+    private int count = 0;
+
+    public Ghosts(int capacity) {
+        rows = new int[capacity];
+        cols = new int[capacity];
+        modes = new byte[capacity];
+        targets = new int[capacity];
+    }
+
+    public int add(int row, int col) {
+        rows[count] = row;
+        cols[count] = col;
+        modes[count] = (byte) GhostMode.SCATTER.ordinal();
+        targets[count] = -1;
+        return count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return rows.length;
+    }
+
+    public int getRow(int ghost) {
+        return rows[ghost];
+    }
+
+    public int getCol(int ghost) {
+        return cols[ghost];
+    }
+
+    public GhostMode getMode(int ghost) {
+        return GhostMode.values()[modes[ghost]];
+    }
+}
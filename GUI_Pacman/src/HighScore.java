@@ -1,59 +1,64 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.util.List;
 
 public class HighScore extends JFrame {
 
-    private ArrayList<Player> players;
-
-    HighScore() throws IOException {
-        players = new ArrayList<>();
-        File scoreFile = new File("score.ser");
-        if (scoreFile.length() == 0) {
-            JOptionPane.showMessageDialog(null, "The file is empty.");
-        } else {
-            readFile("score.ser", players);
-        }
-        if (!players.isEmpty()) {
-            Collections.sort(players);
-            MyList myList = new MyList(players);
-            JList jList = new JList(myList);
-            jList.setModel(myList);
-
-            JScrollPane scrollPane = new JScrollPane(jList);
-
-            JPanel panel = new JPanel(new BorderLayout());
-            panel.add(scrollPane, BorderLayout.CENTER);
-
-            JFrame highScoresFrame = new JFrame("High Scores");
-            highScoresFrame.setLayout(new BorderLayout());
-            highScoresFrame.add(panel, BorderLayout.CENTER);
-            highScoresFrame.setSize(500, 500);
-            highScoresFrame.setLocationRelativeTo(null);
-            highScoresFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-            highScoresFrame.setVisible(true);
-        }
+    private JLabel statusLabel;
 
-    }
+    HighScore() {
+        MyList myList = new MyList(new MyList.PageSource() {
+            private ScoreStore store;
+            private LeaderboardIndex leaderboard;
+
+            @Override
+            public int open() throws IOException {
+                long start = System.nanoTime();
+                store = ScoreStore.open();
+                leaderboard = LeaderboardIndex.open();
+                GameMetrics.get().scoreIo().recordSince(start);
+                return (int) Math.min(leaderboard.getTotal(), Integer.MAX_VALUE);
+            }
 
-    public static void readFile(String path, ArrayList<Player> playerArrayList) throws IOException {
-        try (FileInputStream fileIn = new FileInputStream(path);
-             ObjectInputStream objectIn = new ObjectInputStream(fileIn)) {
-
-            while (true) {
-                try {
-                    Player player = (Player) objectIn.readObject();
-                    playerArrayList.add(player);
-                } catch (EOFException e) {
-                    break;
-                }
+            @Override
+            public List<Player> load(int first, int count) throws IOException {
+                long start = System.nanoTime();
+                List<Player> players = store.readAt(leaderboard.offsets(first, count));
+                GameMetrics.get().scoreIo().recordSince(start);
+                return players;
             }
+        });
+        JList jList = new JList(myList);
+        jList.setPrototypeCellValue("Loading...");
+
+        JScrollPane scrollPane = new JScrollPane(jList);
 
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
-        }
+        statusLabel = new JLabel("Loading...");
+        statusLabel.setBorder(BorderFactory.createEtchedBorder());
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(statusLabel, BorderLayout.SOUTH);
+
+        JFrame highScoresFrame = new JFrame("High Scores");
+        highScoresFrame.setLayout(new BorderLayout());
+        highScoresFrame.add(panel, BorderLayout.CENTER);
+        highScoresFrame.setSize(500, 500);
+        highScoresFrame.setLocationRelativeTo(null);
+        highScoresFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        highScoresFrame.setVisible(true);
+
+        myList.load((total, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                statusLabel.setText("Could not read the scores.");
+            } else if (total == 0) {
+                statusLabel.setText("The file is empty.");
+            } else {
+                statusLabel.setText(total + " scores");
+            }
+        });
     }
 
 
@@ -0,0 +1,432 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Leaderboard kept next to the score file: a {@link RankTree} of every score
+ * for rank and percentile queries, and the offsets of the best
+ * {@link #TOP_ENTRIES} records. Pages below those are found by scanning the
+ * score file.
+ * <p>
+ * The index file ({@code score.dat.idx}) is a header (magic, version,
+ * generation) followed by blocks of a type, a body length, the body and a
+ * CRC32 of all three. A checkpoint block holds the whole index; each catch up
+ * after it appends a block with only the records it added. When enough of
+ * those have piled up the file is rewritten as one checkpoint under a new
+ * generation, which tells other processes to read it again from the start.
+ */
+public class LeaderboardIndex {
+
+    static final int TOP_ENTRIES = 1024;
+
+    private static final int MAGIC = 0x504D4958;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final int BLOCK_OVERHEAD = 4 + 4 + 4;
+    private static final int ENTRY_SIZE = 4 + 8 + 8;
+    private static final int CHECKPOINT = 1;
+    private static final int ADDED = 2;
+    private static final int BLOCKS_PER_CHECKPOINT = 64;
+
+    private static LeaderboardIndex defaultIndex;
+
+    private final ScoreStore store;
+    private final Path path;
+
+    // The best records, best first.
+    private final int[] scores = new int[TOP_ENTRIES];
+    private final long[] times = new long[TOP_ENTRIES];
+    private final long[] offsets = new long[TOP_ENTRIES];
+    private int count = 0;
+
+    // Records added by the running catch up, in file order. Past
+    // TOP_ENTRIES only counted, as those go out in a checkpoint instead.
+    private int[] addedScores = new int[16];
+    private long[] addedTimes = new long[16];
+    private long[] addedOffsets = new long[16];
+    private int added = 0;
+
+    private RankTree ranks = new RankTree();
+    private long coveredOffset = ScoreStore.HEADER_SIZE;
+
+    // How far this instance has read the index file, and in which generation.
+    private long generation;
+    private long readEnd = 0;
+    private int blocksSinceCheckpoint = 0;
+
+    public LeaderboardIndex(ScoreStore store) {
+        this.store = store;
+        this.path = pathFor(store.getPath());
+    }
+
+    static Path pathFor(Path scoreFile) {
+        return scoreFile.resolveSibling(scoreFile.getFileName() + ".idx");
+    }
+
+    public static LeaderboardIndex open(ScoreStore store) throws IOException {
+        LeaderboardIndex index = new LeaderboardIndex(store);
+        index.catchUp();
+        return index;
+    }
+
+    /**
+     * Returns the index of the default score file, shared by the whole
+     * process and caught up with the records appended since the last call.
+     */
+    public static synchronized LeaderboardIndex open() throws IOException {
+        if (defaultIndex == null) {
+            defaultIndex = new LeaderboardIndex(ScoreStore.open());
+        }
+        defaultIndex.catchUp();
+        return defaultIndex;
+    }
+
+    /**
+     * Under the index file's lock, reads the blocks other processes appended
+     * since the last call, adds the records appended to the score file since
+     * then and appends a block with them.
+     */
+    public synchronized int catchUp() throws IOException {
+        long before = ranks.size();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                readBlocks(channel);
+                long storeSize = Files.exists(store.getPath()) ? Files.size(store.getPath()) : 0;
+                if (coveredOffset > Math.max(storeSize, ScoreStore.HEADER_SIZE)) {
+                    // The score file was cut back; start over.
+                    reset(channel);
+                }
+                added = 0;
+                long end = store.scan(coveredOffset, this::add);
+                if (end != coveredOffset) {
+                    coveredOffset = end;
+                    if (added >= TOP_ENTRIES || blocksSinceCheckpoint >= BLOCKS_PER_CHECKPOINT) {
+                        writeCheckpoint(channel);
+                    } else {
+                        appendAdded(channel);
+                    }
+                }
+            } finally {
+                lock.release();
+            }
+        }
+        return (int) (ranks.size() - before);
+    }
+
+    private void add(long offset, Player player) {
+        if (added < TOP_ENTRIES) {
+            if (added == addedScores.length) {
+                addedScores = Arrays.copyOf(addedScores, added * 2);
+                addedTimes = Arrays.copyOf(addedTimes, added * 2);
+                addedOffsets = Arrays.copyOf(addedOffsets, added * 2);
+            }
+            addedScores[added] = player.result;
+            addedTimes[added] = player.time;
+            addedOffsets[added] = offset;
+        }
+        added++;
+        add(player.result, player.time, offset);
+    }
+
+    /**
+     * Counts the record and, if it ranks among the best, inserts it there.
+     */
+    private void add(int score, long time, long offset) {
+        ranks.add(score);
+        if (count == TOP_ENTRIES && !isWorse(scores[count - 1], times[count - 1], offsets[count - 1], score, time, offset)) {
+            return;
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (isWorse(scores[middle], times[middle], offsets[middle], score, time, offset)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int moved = Math.min(count, TOP_ENTRIES - 1) - low;
+        System.arraycopy(scores, low, scores, low + 1, moved);
+        System.arraycopy(times, low, times, low + 1, moved);
+        System.arraycopy(offsets, low, offsets, low + 1, moved);
+        scores[low] = score;
+        times[low] = time;
+        offsets[low] = offset;
+        count = Math.min(count + 1, TOP_ENTRIES);
+    }
+
+    public synchronized long getTotal() {
+        return ranks.size();
+    }
+
+    /**
+     * 1-based position a game with {@code score} has among all recorded games.
+     */
+    public synchronized long rank(int score) {
+        return ranks.countAbove(score) + 1;
+    }
+
+    /**
+     * Percentage of recorded games with a lower score than {@code score}.
+     */
+    public synchronized double percentile(int score) {
+        long total = ranks.size();
+        return total == 0 ? 100.0 : 100.0 * ranks.countBelow(score) / total;
+    }
+
+    /**
+     * Record offsets of the entries ranked {@code first} (0-based) to
+     * {@code first + length - 1}, best first.
+     */
+    public synchronized long[] offsets(int first, int length) throws IOException {
+        long total = ranks.size();
+        int from = (int) Math.min(Math.max(first, 0), total);
+        int to = (int) Math.min(total, (long) from + Math.max(length, 0));
+        if (to <= count) {
+            return Arrays.copyOfRange(offsets, from, to);
+        }
+        return scanRanks(from, to);
+    }
+
+    /**
+     * Offsets of the ranks {@code from} to {@code to - 1} below the kept
+     * best: the rank tree gives the range of scores they have, and one scan
+     * of the score file collects and sorts the records in that range.
+     */
+    private long[] scanRanks(int from, int to) throws IOException {
+        int highest = ranks.scoreAt(from);
+        int lowest = ranks.scoreAt(to - 1);
+        long skipped = from - ranks.countAbove(highest);
+        long inRange = ranks.size() - ranks.countBelow(lowest) - ranks.countAbove(highest);
+        int[] rangeScores = new int[(int) inRange];
+        long[] rangeTimes = new long[rangeScores.length];
+        long[] rangeOffsets = new long[rangeScores.length];
+        int[] found = {0};
+        long covered = coveredOffset;
+        store.scan(ScoreStore.HEADER_SIZE, (offset, player) -> {
+            if (offset < covered && player.result >= lowest && player.result <= highest && found[0] < rangeScores.length) {
+                rangeScores[found[0]] = player.result;
+                rangeTimes[found[0]] = player.time;
+                rangeOffsets[found[0]] = offset;
+                found[0]++;
+            }
+        });
+        Integer[] order = new Integer[found[0]];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> rangeScores[a] != rangeScores[b] ? Integer.compare(rangeScores[b], rangeScores[a])
+                : rangeTimes[a] != rangeTimes[b] ? Long.compare(rangeTimes[a], rangeTimes[b])
+                : Long.compare(rangeOffsets[a], rangeOffsets[b]));
+        int start = (int) Math.min(skipped, order.length);
+        int end = Math.min(order.length, start + to - from);
+        long[] page = new long[end - start];
+        for (int i = start; i < end; i++) {
+            page[i - start] = rangeOffsets[order[i]];
+        }
+        return page;
+    }
+
+    private void clear() {
+        count = 0;
+        ranks = new RankTree();
+        coveredOffset = ScoreStore.HEADER_SIZE;
+    }
+
+    /**
+     * True when entry a ranks below entry b: lower score, or the same score
+     * reached later.
+     */
+    private static boolean isWorse(int scoreA, long timeA, long offsetA, int scoreB, long timeB, long offsetB) {
+        if (scoreA != scoreB) {
+            return scoreA < scoreB;
+        }
+        if (timeA != timeB) {
+            return timeA > timeB;
+        }
+        return offsetA > offsetB;
+    }
+
+    /**
+     * Applies the blocks after {@link #readEnd}, or all of them if another
+     * process rewrote the file. A block that does not read back intact ends
+     * the file and is cut off; the records it held are caught up again from
+     * the score file.
+     */
+    private void readBlocks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (size < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE
+                || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            reset(channel);
+            return;
+        }
+        if (readEnd < HEADER_SIZE || readEnd > size || header.getLong(8) != generation) {
+            clear();
+            generation = header.getLong(8);
+            readEnd = HEADER_SIZE;
+            blocksSinceCheckpoint = 0;
+        }
+        ByteBuffer blocks = ByteBuffer.allocate((int) (size - readEnd));
+        while (blocks.hasRemaining()) {
+            if (channel.read(blocks, readEnd + blocks.position()) < 0) {
+                break;
+            }
+        }
+        blocks.flip();
+        while (blocks.remaining() >= BLOCK_OVERHEAD) {
+            int start = blocks.position();
+            int type = blocks.getInt(start);
+            int length = blocks.getInt(start + 4);
+            if (length < 0 || length > blocks.remaining() - BLOCK_OVERHEAD) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(blocks.array(), start, 8 + length);
+            if ((int) crc.getValue() != blocks.getInt(start + 8 + length)) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.wrap(blocks.array(), start + 8, length).slice();
+            if (type == CHECKPOINT) {
+                readCheckpoint(body);
+                blocksSinceCheckpoint = 0;
+            } else if (type == ADDED) {
+                readAdded(body);
+                blocksSinceCheckpoint++;
+            } else {
+                break;
+            }
+            blocks.position(start + BLOCK_OVERHEAD + length);
+        }
+        readEnd += blocks.position();
+        if (readEnd < size) {
+            System.err.println("Truncating leaderboard index " + path + " at " + readEnd);
+            channel.truncate(readEnd);
+        }
+    }
+
+    /**
+     * Starts an empty file under a new generation.
+     */
+    private void reset(FileChannel channel) throws IOException {
+        clear();
+        writeFile(channel);
+    }
+
+    /**
+     * Rewrites the file as a single checkpoint of the current index.
+     */
+    private void writeCheckpoint(FileChannel channel) throws IOException {
+        writeFile(channel, checkpointBlock());
+    }
+
+    private void writeFile(FileChannel channel, ByteBuffer... blocks) throws IOException {
+        generation = ThreadLocalRandom.current().nextLong();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+        channel.truncate(0);
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        for (ByteBuffer block : blocks) {
+            while (block.hasRemaining()) {
+                position += channel.write(block, position);
+            }
+        }
+        channel.force(false);
+        readEnd = position;
+        blocksSinceCheckpoint = 0;
+    }
+
+    private void appendAdded(FileChannel channel) throws IOException {
+        ByteBuffer block = block(ADDED, 8 + 4 + added * ENTRY_SIZE);
+        block.putLong(coveredOffset).putInt(added);
+        putEntries(block, addedScores, addedTimes, addedOffsets, added);
+        ByteBuffer written = finish(block);
+        while (written.hasRemaining()) {
+            readEnd += channel.write(written, readEnd);
+        }
+        channel.force(false);
+        blocksSinceCheckpoint++;
+    }
+
+    private ByteBuffer checkpointBlock() {
+        ByteBuffer block = block(CHECKPOINT, 8 + 4 + count * ENTRY_SIZE + 4 + ranks.distinctScores() * 12);
+        block.putLong(coveredOffset).putInt(count);
+        putEntries(block, scores, times, offsets, count);
+        block.putInt(ranks.distinctScores());
+        ranks.forEach((score, occurrences) -> block.putInt(score).putLong(occurrences));
+        return finish(block);
+    }
+
+    private void readCheckpoint(ByteBuffer body) {
+        clear();
+        coveredOffset = body.getLong();
+        count = Math.min(body.getInt(), TOP_ENTRIES);
+        body.asIntBuffer().get(scores, 0, count);
+        body.position(body.position() + count * 4);
+        body.asLongBuffer().get(times, 0, count);
+        body.position(body.position() + count * 8);
+        body.asLongBuffer().get(offsets, 0, count);
+        body.position(body.position() + count * 8);
+        int distinct = body.getInt();
+        for (int i = 0; i < distinct; i++) {
+            ranks.add(body.getInt(), body.getLong());
+        }
+    }
+
+    private void readAdded(ByteBuffer body) {
+        long covered = body.getLong();
+        int entries = body.getInt();
+        int[] blockScores = new int[entries];
+        long[] blockTimes = new long[entries];
+        long[] blockOffsets = new long[entries];
+        body.asIntBuffer().get(blockScores);
+        body.position(body.position() + entries * 4);
+        body.asLongBuffer().get(blockTimes);
+        body.position(body.position() + entries * 8);
+        body.asLongBuffer().get(blockOffsets);
+        for (int i = 0; i < entries; i++) {
+            add(blockScores[i], blockTimes[i], blockOffsets[i]);
+        }
+        coveredOffset = covered;
+    }
+
+    /**
+     * Writes the scores, times and offsets each in one run, so they are
+     * copied in and out with bulk buffer operations.
+     */
+    private static void putEntries(ByteBuffer block, int[] scores, long[] times, long[] offsets, int length) {
+        block.asIntBuffer().put(scores, 0, length);
+        block.position(block.position() + length * 4);
+        block.asLongBuffer().put(times, 0, length);
+        block.position(block.position() + length * 8);
+        block.asLongBuffer().put(offsets, 0, length);
+        block.position(block.position() + length * 8);
+    }
+
+    private static ByteBuffer block(int type, int length) {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_OVERHEAD + length);
+        block.putInt(type).putInt(length);
+        return block;
+    }
+
+    private static ByteBuffer finish(ByteBuffer block) {
+        CRC32 crc = new CRC32();
+        crc.update(block.array(), 0, block.position());
+        block.putInt((int) crc.getValue());
+        block.flip();
+        return block;
+    }
+}
@@ -3,6 +3,7 @@ import javax.swing.*;
 public class Main extends JFrame {
 
     public static void main(String[] args) {
+        GameMetrics.get();
         SwingUtilities.invokeLater(() -> new MainMenu());
     }
 }
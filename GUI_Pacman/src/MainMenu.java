@@ -1,14 +1,22 @@
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
 public class MainMenu extends JFrame implements ActionListener {
 
+    static final int MIN_SIZE = 10;
+    static final int MAX_SIZE = 10000;
+    static final int MAX_GHOSTS = 100000;
+
     JLabel welcomeText;
 
     JButton newGame;
+    JButton loadGame;
     JButton highScores;
     JButton exit;
 
@@ -58,12 +66,21 @@ public class MainMenu extends JFrame implements ActionListener {
         newGame.addActionListener(this);
         backgroundPanel.add(newGame);
 
+        loadGame = new JButton();
+        loadGame.setText("Load Game");
+        loadGame.setFocusable(false);
+        loadGame.setBackground(new Color(83, 150, 221));
+        loadGame.setFont(new Font("MV Boli", Font.ITALIC, 20));
+        loadGame.setBounds(170, 170, 150, 50);
+        loadGame.addActionListener(this);
+        backgroundPanel.add(loadGame);
+
         highScores = new JButton();
         highScores.setText("High Scores");
         highScores.setFocusable(false);
         highScores.setBackground(new Color(221, 150, 83));
         highScores.setFont(new Font("MV Boli", Font.ITALIC, 20));
-        highScores.setBounds(170, 170, 150, 50);
+        highScores.setBounds(170, 240, 150, 50);
         highScores.addActionListener(this);
         backgroundPanel.add(highScores);
 
@@ -72,7 +89,7 @@ public class MainMenu extends JFrame implements ActionListener {
         exit.setFocusable(false);
         exit.setBackground(Color.RED);
         exit.setFont(new Font("MV Boli", Font.ITALIC, 20));
-        exit.setBounds(170, 240, 150, 50);
+        exit.setBounds(170, 310, 150, 50);
         exit.addActionListener(this);
         backgroundPanel.add(exit);
 
@@ -90,25 +107,40 @@ public class MainMenu extends JFrame implements ActionListener {
         if (e.getSource() == exit) {
             System.exit(1);
         } else if (e.getSource() == highScores) {
-            try {
-                new HighScore();
-            } catch (IOException ioException) {
-                ioException.printStackTrace();
-            }
+            new HighScore();
         } else if (e.getSource() == newGame) {
             openNewGameWindow();
             this.dispose();
+        } else if (e.getSource() == loadGame) {
+            loadSavedGame();
+        }
+    }
+
+    private void loadSavedGame() {
+        JFileChooser chooser = new JFileChooser(new File(Snapshot.DIRECTORY));
+        chooser.setFileFilter(new FileNameExtensionFilter("Saved games", Snapshot.EXTENSION.substring(1)));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Path path = chooser.getSelectedFile().toPath();
+            Snapshot snapshot = AutoSave.isBase(path) ? AutoSave.recover(path.getParent()) : Snapshot.load(path);
+            new GameWindow(snapshot);
+            this.dispose();
+        } catch (IOException | RuntimeException ex) {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not load the game: " + ex.getMessage());
         }
     }
 
     private void openNewGameWindow() {
-        String sizeInput = JOptionPane.showInputDialog("Enter the size of table (from 10 do 100):");
+        String sizeInput = JOptionPane.showInputDialog("Enter the size of table (from " + MIN_SIZE + " do " + MAX_SIZE + "):");
 
         try {
             int size = Integer.parseInt(sizeInput);
 
-            if (size >= 10 && size <= 100) {
-                new GameWindow(size);
+            if (size >= MIN_SIZE && size <= MAX_SIZE) {
+                openNewGameWindow(size);
             } else {
                 JOptionPane.showMessageDialog(this, "Wrong size.");
             }
@@ -117,6 +149,28 @@ public class MainMenu extends JFrame implements ActionListener {
         }
     }
 
+    /**
+     * Asks for at most one ghost per cell besides Pacman's. Walls take cells
+     * too, so the engine may place fewer.
+     */
+    private void openNewGameWindow(int size) {
+        int maxGhosts = Math.min(MAX_GHOSTS, size * size - 1);
+        String ghostsInput = JOptionPane.showInputDialog("Enter the number of ghosts (from 1 do " + maxGhosts + "):",
+                Math.min(GameEngine.DEFAULT_GHOSTS, maxGhosts));
+
+        try {
+            int ghosts = Integer.parseInt(ghostsInput);
+
+            if (ghosts >= 1 && ghosts <= maxGhosts) {
+                new GameWindow(size, ghosts);
+            } else {
+                JOptionPane.showMessageDialog(this, "Wrong number of ghosts.");
+            }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Wrong number of ghosts.");
+        }
+    }
+
 
 }
 
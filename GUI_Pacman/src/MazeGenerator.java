@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Builds boards on which every walkable cell can reach every other. Bands of
+ * rows are carved in parallel with Eller's algorithm, stitched together, and
+ * then thinned out to the wanted wall density.
+ */
+public class MazeGenerator {
+
+    private static final int BAND_ROOM_ROWS = 64;
+    private static final int STITCH_BITS = 5;
+
+    private static final byte WALL = (byte) Cell.WALL.ordinal();
+    private static final byte EMPTY = (byte) Cell.EMPTY.ordinal();
+
+    private MazeGenerator() {
+    }
+
+    /**
+     * Fills {@code board} with a connected maze at roughly
+     * {@code wallPercent} walls, capped at the density of the spanning tree.
+     */
+    public static void generate(Board board, int wallPercent, long seed) {
+        int rows = board.getRowCount();
+        int columns = board.getColumnCount();
+        byte[] cells = board.rawCells();
+        int roomRows = (rows + 1) / 2;
+        int bands = (roomRows + BAND_ROOM_ROWS - 1) / BAND_ROOM_ROWS;
+
+        IntStream range = IntStream.range(0, bands);
+        if (bands > 1) {
+            range = range.parallel();
+        }
+        range.forEach(band -> new Band(cells, rows, columns, band, bands,
+                new SplittableRandom(seed + band * 0x9E3779B97F4A7C15L)).carve(wallPercent));
+        board.reindex();
+    }
+
+    private static class Band {
+        private final byte[] cells;
+        private final int rows;
+        private final int columns;
+        private final int firstRow;
+        private final int endRow;
+        private final boolean lastBand;
+        private final SplittableRandom random;
+
+        private final int roomColumns;
+        private final int[] label;
+        private final int[] parent;
+        private final int[] remap;
+        private final int[] remapStamp;
+        private final int[] downCount;
+        private final int[] downChoice;
+        private final boolean[] down;
+
+        private long bitBuffer;
+        private int bitsLeft = 0;
+
+        Band(byte[] cells, int rows, int columns, int band, int bands, SplittableRandom random) {
+            this.cells = cells;
+            this.rows = rows;
+            this.columns = columns;
+            this.firstRow = band * BAND_ROOM_ROWS * 2;
+            this.endRow = Math.min(rows, firstRow + BAND_ROOM_ROWS * 2);
+            this.lastBand = band == bands - 1;
+            this.random = random;
+
+            roomColumns = (columns + 1) / 2;
+            label = new int[roomColumns];
+            parent = new int[roomColumns];
+            remap = new int[roomColumns];
+            remapStamp = new int[roomColumns];
+            downCount = new int[roomColumns];
+            downChoice = new int[roomColumns];
+            down = new boolean[roomColumns];
+        }
+
+        void carve(int wallPercent) {
+            Arrays.fill(cells, firstRow * columns, endRow * columns, WALL);
+            long open = 0;
+            for (int row = firstRow; row < endRow; row += 2) {
+                int base = row * columns;
+                for (int col = 0; col < columns; col += 2) {
+                    cells[base + col] = EMPTY;
+                }
+                open += roomColumns;
+            }
+            open += carveRooms();
+            if (!lastBand && endRow - 1 > firstRow && ((endRow - 1) & 1) == 1) {
+                open += stitch(endRow - 1);
+            }
+            thin(wallPercent, (long) (endRow - firstRow) * columns - open);
+        }
+
+        /**
+         * Eller's algorithm over the room rows of this band. Returns the number
+         * of passages opened.
+         */
+        private long carveRooms() {
+            int lastRoomRow = (endRow - 1) & ~1;
+            int stamp = 0;
+            long opened = 0;
+            for (int row = firstRow; row <= lastRoomRow; row += 2) {
+                // Rooms reached from above keep their set, renumbered from 0;
+                // the others start a set of their own.
+                stamp++;
+                int next = 0;
+                for (int j = 0; j < roomColumns; j++) {
+                    int id;
+                    if (row > firstRow && down[j]) {
+                        int root = label[j];
+                        if (remapStamp[root] != stamp) {
+                            remapStamp[root] = stamp;
+                            remap[root] = next;
+                            parent[next] = next;
+                            next++;
+                        }
+                        id = remap[root];
+                    } else {
+                        id = next;
+                        parent[next] = next;
+                        next++;
+                    }
+                    label[j] = id;
+                }
+
+                boolean lastRow = row == lastRoomRow;
+                int base = row * columns;
+                int left = label[0];
+                for (int j = 0; j + 1 < roomColumns; j++) {
+                    int right = find(label[j + 1]);
+                    int merge = left != right & (lastRow | nextBits(1) == 0) ? 1 : 0;
+                    parent[right] = merge != 0 ? left : right;
+                    cells[base + 2 * j + 1] = (byte) (WALL - merge);
+                    opened += merge;
+                    left = merge != 0 ? left : right;
+                }
+                if (lastRow) {
+                    break;
+                }
+
+                for (int j = 0; j < roomColumns; j++) {
+                    int root = find(label[j]);
+                    label[j] = root;
+                    downCount[root] = 0;
+                }
+                // Each room opens downwards with chance 1/4; a set that got no
+                // opening gets one at a cell picked by coin flips along the set.
+                for (int j = 0; j < roomColumns; j++) {
+                    int root = label[j];
+                    int count = downCount[root];
+                    boolean opens = nextBits(2) == 0;
+                    boolean candidate = !opens & count >= 0 & (count == 0 | nextBits(1) == 0);
+                    down[j] = opens;
+                    downChoice[root] = candidate ? j : downChoice[root];
+                    downCount[root] = opens ? -1 : count >= 0 ? count + 1 : count;
+                }
+                int below = (row + 1) * columns;
+                for (int j = 0; j < roomColumns; j++) {
+                    int root = label[j];
+                    boolean opens = down[j] | (downCount[root] > 0 & downChoice[root] == j);
+                    down[j] = opens;
+                    cells[below + 2 * j] = opens ? EMPTY : WALL;
+                    opened += opens ? 1 : 0;
+                }
+            }
+            return opened;
+        }
+
+        /**
+         * {@code count} random bits, served from one 64-bit draw at a time;
+         * most decisions here need only one or two.
+         */
+        private int nextBits(int count) {
+            if (bitsLeft < count) {
+                bitBuffer = random.nextLong();
+                bitsLeft = 64;
+            }
+            int bits = (int) bitBuffer & ((1 << count) - 1);
+            bitBuffer >>>= count;
+            bitsLeft -= count;
+            return bits;
+        }
+
+        private int find(int id) {
+            while (parent[id] != id) {
+                parent[id] = parent[parent[id]];
+                id = parent[id];
+            }
+            return id;
+        }
+
+        /**
+         * Opens passages through wall row {@code row} into the next band. Returns
+         * the number opened.
+         */
+        private int stitch(int row) {
+            int base = row * columns;
+            int opened = 1;
+            cells[base + 2 * random.nextInt(roomColumns)] = EMPTY;
+            for (int j = 0; j < roomColumns; j++) {
+                if (cells[base + 2 * j] == WALL && nextBits(STITCH_BITS) == 0) {
+                    cells[base + 2 * j] = EMPTY;
+                    opened++;
+                }
+            }
+            return opened;
+        }
+
+        private void thin(int wallPercent, long walls) {
+            long excess = walls - (long) (endRow - firstRow) * columns * wallPercent / 100;
+            if (excess <= 0) {
+                return;
+            }
+            int removeChance = (int) Math.round(256.0 * excess / walls);
+            for (int row = firstRow; row < endRow; row++) {
+                // A missing neighbour points back at the cell itself, which
+                // is a wall whenever it matters.
+                int up = row > firstRow ? -columns : 0;
+                int down = row + 1 < endRow ? columns : 0;
+                int base = row * columns;
+                for (int col = 0; col < columns; col++) {
+                    int i = base + col;
+                    int left = col > 0 ? -1 : 0;
+                    int right = col + 1 < columns ? 1 : 0;
+                    int touchesOpen = (cells[i + up] & cells[i + down] & cells[i + left] & cells[i + right]) ^ WALL;
+                    int remove = cells[i] & touchesOpen & (nextBits(8) < removeChance ? 1 : 0);
+                    cells[i] = (byte) (cells[i] ^ remove);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.BitSet;
+
+/**
+ * Overview of the whole board, one pixel per block of cells. Block colours
+ * are cached and only redone when terrain changes; entities are drawn on top
+ * every frame.
+ */
+public class MiniMap extends JComponent implements CellListener {
+
+    private static final int MAX_PIXELS = 160;
+    private static final int FLOOR = 0x000000;
+    private static final int WALL = 0x2040ff;
+    private static final int PACMAN = 0xffff00;
+    private static final int GHOST = 0xff2020;
+
+    private final GameEngine engine;
+    private final BoardView boardView;
+    private final int blockSize;
+    private final int width;
+    private final int height;
+
+    private final int[] blocks;
+    private final BitSet dirtyBlocks = new BitSet();
+    private boolean built = false;
+    private final BufferedImage frame;
+    private final int[] framePixels;
+
+    public MiniMap(GameEngine engine, BoardView boardView) {
+        this.engine = engine;
+        this.boardView = boardView;
+        int side = Math.max(engine.getRowCount(), engine.getColumnCount());
+        this.blockSize = (side + MAX_PIXELS - 1) / MAX_PIXELS;
+        this.width = (engine.getColumnCount() + blockSize - 1) / blockSize;
+        this.height = (engine.getRowCount() + blockSize - 1) / blockSize;
+        this.blocks = new int[width * height];
+        this.frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.framePixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+
+        setPreferredSize(new Dimension(MAX_PIXELS, MAX_PIXELS));
+        setOpaque(true);
+    }
+
+    @Override
+    public void cellsChanged(int row, int firstCol, int lastCol) {
+        if (!built) {
+            return;
+        }
+        int blockRow = row / blockSize;
+        for (int blockCol = firstCol / blockSize; blockCol <= lastCol / blockSize; blockCol++) {
+            dirtyBlocks.set(blockRow * width + blockCol);
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(Color.darkGray);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (!built) {
+            build();
+        }
+        for (int block = dirtyBlocks.nextSetBit(0); block >= 0; block = dirtyBlocks.nextSetBit(block + 1)) {
+            blocks[block] = shade(block / width, block % width);
+        }
+        dirtyBlocks.clear();
+
+        System.arraycopy(blocks, 0, framePixels, 0, blocks.length);
+        Ghosts ghosts = engine.getGhosts();
+        for (int ghost = 0; ghost < ghosts.size(); ghost++) {
+            framePixels[(ghosts.getRow(ghost) / blockSize) * width + ghosts.getCol(ghost) / blockSize] = GHOST;
+        }
+        framePixels[(engine.getPacmanRow() / blockSize) * width + engine.getPacmanCol() / blockSize] = PACMAN;
+
+        double pixel = Math.min((double) getWidth() / width, (double) getHeight() / height);
+        int left = (int) ((getWidth() - width * pixel) / 2);
+        int top = (int) ((getHeight() - height * pixel) / 2);
+        g.drawImage(frame, left, top, (int) (width * pixel), (int) (height * pixel), null);
+
+        Camera camera = boardView.getCamera();
+        double scale = pixel / (blockSize * boardView.getCellSize());
+        g.setColor(Color.white);
+        g.drawRect(left + (int) (Math.max(0, camera.getX()) * scale), top + (int) (Math.max(0, camera.getY()) * scale),
+                (int) (camera.getWidth() * scale), (int) (camera.getHeight() * scale));
+    }
+
+    /**
+     * Counts the walls of every block in one pass over the board.
+     */
+    private void build() {
+        int[] walls = new int[blocks.length];
+        for (int row = 0; row < engine.getRowCount(); row++) {
+            int blockBase = (row / blockSize) * width;
+            for (int col = 0; col < engine.getColumnCount(); col++) {
+                if (engine.getCell(row, col) == Cell.WALL) {
+                    walls[blockBase + col / blockSize]++;
+                }
+            }
+        }
+        for (int block = 0; block < blocks.length; block++) {
+            blocks[block] = mix(walls[block], cellsIn(block / width, block % width));
+        }
+        built = true;
+    }
+
+    private int shade(int blockRow, int blockCol) {
+        int lastRow = Math.min(engine.getRowCount(), (blockRow + 1) * blockSize);
+        int lastCol = Math.min(engine.getColumnCount(), (blockCol + 1) * blockSize);
+        int walls = 0;
+        for (int row = blockRow * blockSize; row < lastRow; row++) {
+            for (int col = blockCol * blockSize; col < lastCol; col++) {
+                if (engine.getCell(row, col) == Cell.WALL) {
+                    walls++;
+                }
+            }
+        }
+        return mix(walls, cellsIn(blockRow, blockCol));
+    }
+
+    private int cellsIn(int blockRow, int blockCol) {
+        int rows = Math.min(engine.getRowCount(), (blockRow + 1) * blockSize) - blockRow * blockSize;
+        int cols = Math.min(engine.getColumnCount(), (blockCol + 1) * blockSize) - blockCol * blockSize;
+        return rows * cols;
+    }
+
+    private static int mix(int walls, int cells) {
+        int red = ((WALL >> 16) & 0xff) * walls / cells + ((FLOOR >> 16) & 0xff) * (cells - walls) / cells;
+        int green = ((WALL >> 8) & 0xff) * walls / cells + ((FLOOR >> 8) & 0xff) * (cells - walls) / cells;
+        int blue = (WALL & 0xff) * walls / cells + (FLOOR & 0xff) * (cells - walls) / cells;
+        return red << 16 | green << 8 | blue;
+    }
+}
@@ -1,21 +1,108 @@
+
 import javax.swing.*;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Leaderboard list model that reads entries page by page on background
+ * workers. Opening the source only finds out how many entries there are;
+ * a page is read when the list first asks for one of its rows, and only the
+ * most recently used {@link #MAX_PAGES} are kept.
+ */
 public class MyList extends AbstractListModel {
 
-    public ArrayList<Player> players;
+    public static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 20;
+    private static final String LOADING = "Loading...";
+
+    public interface PageSource {
+        int open() throws IOException;
+
+        List<Player> load(int first, int count) throws IOException;
+    }
+
+    public interface LoadListener {
+        void loaded(int total, IOException error);
+    }
+
+    private final PageSource source;
+    private final Map<Integer, List<Player>> pages = new LinkedHashMap<Integer, List<Player>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Player>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private int size = 0;
 
-    public MyList(ArrayList<Player> players) {
-        this.players = players;
+    public MyList(PageSource source) {
+        this.source = source;
+    }
+
+    public void load(LoadListener listener) {
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                return source.open();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    size = get();
+                    if (size > 0) {
+                        fireIntervalAdded(MyList.this, 0, size - 1);
+                    }
+                    listener.loaded(size, null);
+                } catch (Exception e) {
+                    IOException error = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+                    listener.loaded(0, error);
+                }
+            }
+        }.execute();
     }
 
     @Override
     public int getSize() {
-        return players.size();
+        return size;
     }
 
     @Override
     public Object getElementAt(int index) {
-        return players.get(index);
+        int page = index / PAGE_SIZE;
+        List<Player> players = pages.get(page);
+        if (players == null) {
+            request(page);
+            return LOADING;
+        }
+        int offset = index % PAGE_SIZE;
+        return offset < players.size() ? players.get(offset) : LOADING;
+    }
+
+    private void request(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        new SwingWorker<List<Player>, Void>() {
+            @Override
+            protected List<Player> doInBackground() throws IOException {
+                return source.load(page * PAGE_SIZE, Math.min(PAGE_SIZE, size - page * PAGE_SIZE));
+            }
+
+            @Override
+            protected void done() {
+                loading.remove(page);
+                try {
+                    pages.put(page, get());
+                    fireContentsChanged(MyList.this, page * PAGE_SIZE, Math.min(size, (page + 1) * PAGE_SIZE) - 1);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
     }
 }
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+/**
+ * Which board cells hold an entity, kept apart from the terrain in
+ * {@link Board}: a bitset per cell plus an open-addressing table from cell to
+ * entity.
+ */
+public class Occupancy {
+
+    public static final int NONE = -1;
+
+    private final long[] occupied;
+    private final int[] keys;
+    private final int[] entities;
+    private final int mask;
+    private final int shift;
+    private int size = 0;
+
+    /**
+     * @param cells    number of board cells
+     * @param capacity most entities that will ever be on the board at once
+     */
+    public Occupancy(int cells, int capacity) {
+        occupied = new long[(cells + 63) >>> 6];
+        int tableSize = Integer.highestOneBit(Math.max(8, capacity) * 2 - 1) << 1;
+        keys = new int[tableSize];
+        entities = new int[tableSize];
+        Arrays.fill(keys, NONE);
+        mask = tableSize - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(tableSize);
+    }
+
+    public boolean isOccupied(int index) {
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * The entity on cell {@code index}, or {@link #NONE}.
+     */
+    public int entityAt(int index) {
+        if (!isOccupied(index)) {
+            return NONE;
+        }
+        return entities[slotOf(index)];
+    }
+
+    public void place(int index, int entity) {
+        if (isOccupied(index)) {
+            throw new IllegalStateException("Cell " + index + " already holds entity " + entityAt(index));
+        }
+        if (size == keys.length / 2) {
+            throw new IllegalStateException("More than " + size + " entities");
+        }
+        int slot = hash(index);
+        while (keys[slot] != NONE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = index;
+        entities[slot] = entity;
+        occupied[index >>> 6] |= 1L << index;
+        size++;
+    }
+
+    /**
+     * Removes and returns the entity on cell {@code index}, or returns
+     * {@link #NONE} if the cell was free.
+     */
+    public int remove(int index) {
+        if (!isOccupied(index)) {
+            return NONE;
+        }
+        int slot = slotOf(index);
+        int entity = entities[slot];
+        occupied[index >>> 6] &= ~(1L << index);
+        size--;
+
+        // Shift later entries of the probe run back so no lookup stops early.
+        int next = (slot + 1) & mask;
+        while (keys[next] != NONE) {
+            int home = hash(keys[next]);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                entities[slot] = entities[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = NONE;
+        return entity;
+    }
+
+    /**
+     * Moves the entity on {@code from} to the free cell {@code to}.
+     */
+    public void move(int from, int to) {
+        if (isOccupied(to)) {
+            throw new IllegalStateException("Cell " + to + " already holds entity " + entityAt(to));
+        }
+        place(to, remove(from));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slotOf(int index) {
+        int slot = hash(index);
+        while (keys[slot] != index) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash(int index) {
+        return (index * 0x9E3779B9) >>> shift;
+    }
+}
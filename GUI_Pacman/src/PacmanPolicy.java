@@ -0,0 +1,110 @@
+import java.util.SplittableRandom;
+
+/**
+ * Stands in for the player when games run without a window. It is asked for
+ * a direction before every tick and sees the same board a player would.
+ */
+public interface PacmanPolicy {
+
+    Direction[] DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+
+    Direction choose(GameEngine engine, SplittableRandom random);
+
+    static PacmanPolicy forName(String name) {
+        switch (name) {
+            case "random":
+                return new RandomPolicy();
+            case "cautious":
+                return new CautiousPolicy();
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name + " (expected random or cautious)");
+        }
+    }
+
+    static int rowStep(Direction direction) {
+        return direction == Direction.UP ? -1 : direction == Direction.DOWN ? 1 : 0;
+    }
+
+    static int colStep(Direction direction) {
+        return direction == Direction.LEFT ? -1 : direction == Direction.RIGHT ? 1 : 0;
+    }
+
+    /**
+     * Like a player mashing arrow keys: turns at random now and then, and
+     * whenever it runs into a wall or the board edge.
+     */
+    class RandomPolicy implements PacmanPolicy {
+
+        @Override
+        public Direction choose(GameEngine engine, SplittableRandom random) {
+            Direction current = engine.getPacmanDirection();
+            if (current == Direction.NONE || random.nextInt(50) == 0) {
+                return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            }
+            int row = engine.getPacmanRow() + rowStep(current);
+            int col = engine.getPacmanCol() + colStep(current);
+            boolean blocked = row < 0 || row >= engine.getRowCount() || col < 0 || col >= engine.getColumnCount()
+                    || engine.getCell(row, col) == Cell.WALL;
+            return blocked ? DIRECTIONS[random.nextInt(DIRECTIONS.length)] : current;
+        }
+    }
+
+    /**
+     * Scripted player: scores each neighbouring cell and goes for the best
+     * one. Power-ups attract, ghosts and cells next to ghosts repel, and it
+     * prefers to keep going straight; ties are broken at random.
+     */
+    class CautiousPolicy implements PacmanPolicy {
+
+        @Override
+        public Direction choose(GameEngine engine, SplittableRandom random) {
+            int row = engine.getPacmanRow();
+            int col = engine.getPacmanCol();
+            Direction current = engine.getPacmanDirection();
+            Direction best = current;
+            int bestScore = Integer.MIN_VALUE;
+            int offset = random.nextInt(DIRECTIONS.length);
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                Direction direction = DIRECTIONS[(offset + i) % DIRECTIONS.length];
+                int score = score(engine, row + rowStep(direction), col + colStep(direction));
+                if (direction == current) {
+                    score += 1;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+
+        private static int score(GameEngine engine, int row, int col) {
+            if (!isOnBoard(engine, row, col)) {
+                return -1000;
+            }
+            Cell cell = engine.getCell(row, col);
+            if (cell == Cell.WALL) {
+                return engine.canDestroyWalls() ? 0 : -1000;
+            }
+            if (cell == Cell.GHOST) {
+                // Even an invincible Pacman is blocked by a ghost.
+                return engine.isInvincibleActive() ? -1000 : -500;
+            }
+            int score = GameEngine.isPowerUp(cell) ? 10 : 0;
+            if (!engine.isInvincibleActive()) {
+                for (Direction direction : DIRECTIONS) {
+                    int r = row + rowStep(direction);
+                    int c = col + colStep(direction);
+                    if (isOnBoard(engine, r, c) && engine.getCell(r, c) == Cell.GHOST) {
+                        score -= 50;
+                    }
+                }
+            }
+            return score;
+        }
+
+        private static boolean isOnBoard(GameEngine engine, int row, int col) {
+            return row >= 0 && row < engine.getRowCount() && col >= 0 && col < engine.getColumnCount();
+        }
+    }
+}
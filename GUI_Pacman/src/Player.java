@@ -2,12 +2,20 @@ import java.io.Serializable;
 
 public class Player implements Comparable<Player>, Serializable {
 
+    private static final long serialVersionUID = -2643426692611683286L;
+
     String name;
     int result;
+    long time;
 
     public Player(String name, int result) {
+        this(name, result, System.currentTimeMillis());
+    }
+
+    public Player(String name, int result, long time) {
         this.name = name;
         this.result = result;
+        this.time = time;
     }
 
     @Override
@@ -22,7 +30,9 @@ public class Player implements Comparable<Player>, Serializable {
         }else if (o.result < this.result){
             return -1;
         }
+        else if (o.time != this.time)
+            return Long.compare(this.time, o.time);
         else
-            return 0;
+            return String.valueOf(this.name).compareTo(String.valueOf(o.name));
     }
 }
@@ -0,0 +1,166 @@
+import java.util.SplittableRandom;
+
+/**
+ * Multiset of scores that answers "how many scores are above / below this
+ * one" in O(log n). It is a treap keyed by score; every node keeps how often
+ * its score occurs and the total count of its subtree.
+ */
+public class RankTree {
+
+    public interface ScoreCountVisitor {
+        void visit(int score, long count);
+    }
+
+    private static class Node {
+        final int score;
+        final int priority;
+        long count;
+        long size;
+        Node left;
+        Node right;
+
+        Node(int score, long count, int priority) {
+            this.score = score;
+            this.count = count;
+            this.size = count;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    private Node root;
+    private int distinct = 0;
+
+    public void add(int score) {
+        add(score, 1);
+    }
+
+    public void add(int score, long count) {
+        root = insert(root, score, count);
+    }
+
+    public long size() {
+        return size(root);
+    }
+
+    public int distinctScores() {
+        return distinct;
+    }
+
+    public long countAbove(int score) {
+        long result = 0;
+        Node node = root;
+        while (node != null) {
+            if (score < node.score) {
+                result += node.count + size(node.right);
+                node = node.left;
+            } else if (score > node.score) {
+                node = node.right;
+            } else {
+                result += size(node.right);
+                break;
+            }
+        }
+        return result;
+    }
+
+    public long countBelow(int score) {
+        long result = 0;
+        Node node = root;
+        while (node != null) {
+            if (score > node.score) {
+                result += node.count + size(node.left);
+                node = node.right;
+            } else if (score < node.score) {
+                node = node.left;
+            } else {
+                result += size(node.left);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The score at 0-based {@code rank} counted from the highest, or
+     * {@link Integer#MIN_VALUE} if there are not that many scores.
+     */
+    public int scoreAt(long rank) {
+        Node node = root;
+        while (node != null) {
+            long above = size(node.right);
+            if (rank < above) {
+                node = node.right;
+            } else if (rank < above + node.count) {
+                return node.score;
+            } else {
+                rank -= above + node.count;
+                node = node.left;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Visits every distinct score in ascending order.
+     */
+    public void forEach(ScoreCountVisitor visitor) {
+        forEach(root, visitor);
+    }
+
+    private void forEach(Node node, ScoreCountVisitor visitor) {
+        while (node != null) {
+            forEach(node.left, visitor);
+            visitor.visit(node.score, node.count);
+            node = node.right;
+        }
+    }
+
+    private Node insert(Node node, int score, long count) {
+        if (node == null) {
+            distinct++;
+            return new Node(score, count, priorities.nextInt());
+        }
+        if (score == node.score) {
+            node.count += count;
+        } else if (score < node.score) {
+            node.left = insert(node.left, score, count);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, score, count);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.size = node.count + size(node.left) + size(node.right);
+    }
+
+    private static long size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
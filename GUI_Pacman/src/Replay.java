@@ -0,0 +1,197 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Input log of one game: its config and seed plus every direction change
+ * with its tick. Run {@code java Replay <file>...} to check replays.
+ */
+public class Replay {
+
+    public static final String DIRECTORY = "replays";
+
+    private static final int MAGIC = 0x504D5250;
+    private static final int VERSION = 1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int size;
+    private final int ghosts;
+    private final long seed;
+
+    private long[] ticks = new long[64];
+    private byte[] directions = new byte[64];
+    private int count = 0;
+
+    private long endTick = -1;
+    private int finalScore;
+
+    public Replay(int size, int ghosts, long seed) {
+        this.size = size;
+        this.ghosts = ghosts;
+        this.seed = seed;
+    }
+
+    /**
+     * Records that the direction was set to {@code direction} after
+     * {@code tick} ticks. Repeats of the current direction are dropped.
+     */
+    public void record(long tick, Direction direction) {
+        if (count > 0 && directions[count - 1] == direction.ordinal()) {
+            return;
+        }
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+            directions = Arrays.copyOf(directions, count * 2);
+        }
+        ticks[count] = tick;
+        directions[count] = (byte) direction.ordinal();
+        count++;
+    }
+
+    public void finish(long tick, int score) {
+        endTick = tick;
+        finalScore = score;
+    }
+
+    public int getEventCount() {
+        return count;
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Plays the game again on a fresh engine, without rendering, up to the
+     * recorded end tick or game over.
+     */
+    public GameEngine play() {
+        GameEngine engine = new GameEngine(size, ghosts, seed);
+        int next = 0;
+        while (engine.getTicks() < endTick && !engine.isGameOver()) {
+            while (next < count && ticks[next] <= engine.getTicks()) {
+                engine.setDirection(DIRECTIONS[directions[next++]]);
+            }
+            engine.tick();
+        }
+        return engine;
+    }
+
+    public Path save() throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        Files.createDirectories(directory);
+        Path path = directory.resolve(Long.toHexString(seed) + ".replay");
+        write(path);
+        return path;
+    }
+
+    public void write(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path));
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(ghosts);
+            out.writeLong(seed);
+            out.writeLong(endTick);
+            out.writeInt(finalScore);
+            out.writeInt(count);
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                writeVarLong(out, (ticks[i] - previous) << 3 | directions[i]);
+                previous = ticks[i];
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a replay file: " + path);
+            }
+            Replay replay = new Replay(in.readInt(), in.readInt(), in.readLong());
+            replay.endTick = in.readLong();
+            replay.finalScore = in.readInt();
+            int count = in.readInt();
+            long tick = 0;
+            for (int i = 0; i < count; i++) {
+                long event = readVarLong(in);
+                tick += event >>> 3;
+                int direction = (int) (event & 7);
+                if (direction >= DIRECTIONS.length) {
+                    throw new IOException("Malformed event in replay: " + path);
+                }
+                replay.record(tick, DIRECTIONS[direction]);
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("Replay checksum mismatch: " + path);
+            }
+            return replay;
+        }
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java Replay <file>...");
+            System.exit(2);
+        }
+        boolean allMatch = true;
+        for (String arg : args) {
+            Replay replay;
+            try {
+                replay = read(Paths.get(arg));
+            } catch (IOException e) {
+                System.err.println(arg + ": " + e.getMessage());
+                allMatch = false;
+                continue;
+            }
+            long start = System.nanoTime();
+            GameEngine engine = replay.play();
+            long elapsed = System.nanoTime() - start;
+            boolean match = engine.getScore() == replay.finalScore;
+            allMatch &= match;
+            System.out.printf("%s: %d ticks, %d inputs, score %d (recorded %d) %s, %.1f ms, %.0f ticks/s%n",
+                    arg, engine.getTicks(), replay.count, engine.getScore(), replay.finalScore,
+                    match ? "OK" : "MISMATCH", elapsed / 1e6, engine.getTicks() / (elapsed / 1e9));
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+}
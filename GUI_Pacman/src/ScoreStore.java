@@ -0,0 +1,505 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary score file: an 8 byte header (magic, version), then
+ * records of
+ * <pre>
+ *   int    name length in bytes
+ *   byte[] name, UTF-8
+ *   int    score
+ *   long   timestamp, epoch millis
+ *   int    CRC32 of all preceding record bytes
+ * </pre>
+ * Appends from all processes are committed in batches under a file lock.
+ */
+public class ScoreStore {
+
+    public static final String DEFAULT_PATH = "score.dat";
+    public static final String LEGACY_PATH = "score.ser";
+
+    public static final int MAGIC = 0x504D5343;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    private static final int FIXED_RECORD_SIZE = 4 + 4 + 8 + 4;
+    private static final int MAX_NAME_BYTES = 4096;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int MAX_BATCH = 256;
+
+    public interface RecordVisitor {
+        void visit(long offset, Player player);
+    }
+
+    private static class PendingRecord {
+        final ByteBuffer record;
+        final CompletableFuture<Long> committed = new CompletableFuture<>();
+
+        PendingRecord(ByteBuffer record) {
+            this.record = record;
+        }
+    }
+
+    private static ScoreStore defaultStore;
+
+    private final Path path;
+    private final LinkedBlockingQueue<PendingRecord> pending = new LinkedBlockingQueue<>();
+    private Thread writer;
+    private FileChannel writeChannel;
+    private long validEnd = -1;
+
+    public ScoreStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the store for the default score file, shared by the whole
+     * process. The first call migrates {@code score.ser} if only the legacy
+     * file exists and recovers the log.
+     */
+    public static synchronized ScoreStore open() throws IOException {
+        if (defaultStore == null) {
+            ScoreStore store = new ScoreStore(Paths.get(DEFAULT_PATH));
+            store.migrateFrom(Paths.get(LEGACY_PATH));
+            store.recover();
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Appends a record and waits until it is durably committed. Returns the
+     * offset the record was written at.
+     */
+    public long append(Player player) throws IOException {
+        try {
+            return appendAsync(player).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while committing score");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<Long> appendAsync(Player player) {
+        PendingRecord record = new PendingRecord(encode(player));
+        startWriter();
+        pending.add(record);
+        return record.committed;
+    }
+
+    /**
+     * Takes the file lock and truncates an incomplete or corrupt tail, so the
+     * next append starts on a record boundary. A file damaged before its tail
+     * is copied aside first, see {@link #quarantine}.
+     */
+    public synchronized void recover() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                validEnd = -1;
+                recoverTail(channel);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writer == null) {
+            writer = new Thread(this::writeLoop, "score-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void writeLoop() {
+        ArrayList<PendingRecord> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch, MAX_BATCH - 1);
+            try {
+                commit(batch);
+            } catch (IOException | RuntimeException e) {
+                for (PendingRecord record : batch) {
+                    record.committed.completeExceptionally(e);
+                }
+                closeWriteChannel();
+            }
+            batch.clear();
+        }
+    }
+
+    private synchronized void commit(ArrayList<PendingRecord> batch) throws IOException {
+        if (writeChannel == null) {
+            writeChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        long[] offsets = new long[batch.size()];
+        FileLock lock = writeChannel.lock();
+        try {
+            long position = recoverTail(writeChannel);
+            ByteBuffer[] records = new ByteBuffer[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                records[i] = batch.get(i).record;
+                offsets[i] = position;
+                position += records[i].remaining();
+            }
+            writeChannel.position(validEnd);
+            while (records[records.length - 1].hasRemaining()) {
+                writeChannel.write(records);
+            }
+            writeChannel.force(false);
+            validEnd = position;
+        } finally {
+            lock.release();
+        }
+        // Only after the lock is released, so a caller that goes on to lock
+        // the file from this process does not overlap it.
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).committed.complete(offsets[i]);
+        }
+    }
+
+    private synchronized void closeWriteChannel() {
+        validEnd = -1;
+        if (writeChannel != null) {
+            try {
+                writeChannel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            writeChannel = null;
+        }
+    }
+
+    /**
+     * Must hold the file lock. Cuts off a torn last record, or quarantines a file
+     * corrupt further up, and returns the end of the valid records.
+     */
+    private long recoverTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            channel.truncate(0);
+            channel.write(header(), 0);
+            channel.force(true);
+            validEnd = HEADER_SIZE;
+            return validEnd;
+        }
+        if (validEnd == size) {
+            return validEnd;
+        }
+        long from = validEnd >= HEADER_SIZE && validEnd < size ? validEnd : HEADER_SIZE;
+        long end = scan(channel, from, (offset, player) -> {
+        });
+        if (end < size) {
+            if (isTornTail(channel, end, size)) {
+                System.err.println("Truncating torn score log tail: " + (size - end) + " bytes at " + end);
+            } else {
+                quarantine(channel, end, size);
+            }
+            channel.truncate(end);
+            channel.force(true);
+        }
+        validEnd = end;
+        return validEnd;
+    }
+
+    /**
+     * Copies the whole damaged file to {@code score.dat.corrupt-<millis>} before
+     * the log is cut back to the records ahead of the damage, so later appends
+     * keep working and the lost records can still be dug out by hand. The file
+     * is copied rather than renamed because other processes keep their channel
+     * and lock on it. The leaderboard index may point past the new end, so it
+     * is dropped and rebuilt on the next open.
+     */
+    private void quarantine(FileChannel channel, long end, long size) throws IOException {
+        Path aside = path.resolveSibling(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try (FileChannel copy = FileChannel.open(aside, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (long copied = 0; copied < size; ) {
+                copied += channel.transferTo(copied, size - copied, copy);
+            }
+            copy.force(true);
+        }
+        Files.deleteIfExists(LeaderboardIndex.pathFor(path));
+        System.err.println("Score file " + path + " is corrupt at offset " + end + " with " + (size - end)
+                + " bytes after it; saved it as " + aside + " and kept the records before the damage");
+    }
+
+    /**
+     * True if what follows {@code end} is only the last record, cut short:
+     * too few bytes to tell, a record whose length runs up to or past the end
+     * of the file, or a garbled length with no valid record after it.
+     */
+    private static boolean isTornTail(FileChannel channel, long end, long size) throws IOException {
+        long remaining = size - end;
+        if (remaining < FIXED_RECORD_SIZE) {
+            return true;
+        }
+        if (remaining > FIXED_RECORD_SIZE + MAX_NAME_BYTES) {
+            return false;
+        }
+        ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, end, remaining);
+        int nameLength = tail.getInt(0);
+        if (nameLength >= 0 && nameLength <= MAX_NAME_BYTES) {
+            return remaining <= FIXED_RECORD_SIZE + nameLength;
+        }
+        for (int at = 1; at <= remaining - FIXED_RECORD_SIZE; at++) {
+            if (recordLength(tail, at) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public ArrayList<Player> readAll() throws IOException {
+        ArrayList<Player> players = new ArrayList<>();
+        scan(HEADER_SIZE, (offset, player) -> players.add(player));
+        return players;
+    }
+
+    /**
+     * Visits every valid record starting at {@code from} and returns the offset
+     * just past the last one.
+     */
+    public long scan(long from, RecordVisitor visitor) throws IOException {
+        if (!Files.exists(path)) {
+            return HEADER_SIZE;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(channel, from, visitor);
+        }
+    }
+
+    private long scan(FileChannel channel, long from, RecordVisitor visitor) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            return HEADER_SIZE;
+        }
+        checkHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE));
+
+        long position = Math.max(from, HEADER_SIZE);
+        while (position < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_WINDOW, size - position));
+            int consumed = 0;
+            while (true) {
+                int length = recordLength(window, consumed);
+                if (length < 0) {
+                    break;
+                }
+                visitor.visit(position + consumed, decode(window, consumed));
+                consumed += length;
+            }
+            if (consumed == 0) {
+                consumed = corruptLength(window, 0);
+                if (consumed < 0) {
+                    break;
+                }
+                System.err.println("Skipping corrupt score record at " + position + " in " + path);
+            }
+            position += consumed;
+        }
+        return position;
+    }
+
+    /**
+     * Decodes the record at {@code offset}, or returns null if there is no
+     * valid record there.
+     */
+    public Player readAt(long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset < HEADER_SIZE || offset + FIXED_RECORD_SIZE > size) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(size - offset, FIXED_RECORD_SIZE + MAX_NAME_BYTES));
+            return recordLength(buffer, 0) < 0 ? null : decode(buffer, 0);
+        }
+    }
+
+    /**
+     * Decodes the records at the given offsets, in order, skipping any that
+     * are not valid.
+     */
+    public ArrayList<Player> readAt(long[] offsets) throws IOException {
+        ArrayList<Player> players = new ArrayList<>(offsets.length);
+        if (offsets.length == 0) {
+            return players;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer file = null;
+            long mappedFrom = 0;
+            for (long offset : offsets) {
+                if (offset < HEADER_SIZE || offset + FIXED_RECORD_SIZE > size) {
+                    continue;
+                }
+                if (file == null || offset < mappedFrom
+                        || (offset + FIXED_RECORD_SIZE + MAX_NAME_BYTES > mappedFrom + file.limit() && mappedFrom + file.limit() < size)) {
+                    mappedFrom = offset;
+                    file = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_WINDOW, size - offset));
+                }
+                int at = (int) (offset - mappedFrom);
+                if (recordLength(file, at) >= 0) {
+                    players.add(decode(file, at));
+                }
+            }
+        }
+        return players;
+    }
+
+    /**
+     * One-time import of the Java-serialized {@code score.ser}. Runs only when
+     * the binary file does not exist yet; the legacy file is renamed afterwards
+     * so it is never deserialized again.
+     */
+    public void migrateFrom(Path legacy) throws IOException {
+        if (Files.exists(path) || !Files.exists(legacy)) {
+            return;
+        }
+        ArrayList<Player> players = new ArrayList<>();
+        readLegacy(legacy, players);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(header());
+                for (Player player : players) {
+                    ByteBuffer record = encode(player);
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void readLegacy(Path legacy, ArrayList<Player> players) throws IOException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacy)))) {
+            while (true) {
+                try {
+                    players.add((Player) objectIn.readObject());
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable legacy score file " + legacy, e);
+        }
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    private void checkHeader(ByteBuffer header) throws IOException {
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a score file: " + path);
+        }
+    }
+
+    /**
+     * Encodes one record. A missing name, as score.ser holds for games where
+     * the name dialog was cancelled, is stored as an empty one.
+     */
+    static ByteBuffer encode(Player player) {
+        byte[] name = player.name != null ? player.name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (name.length > MAX_NAME_BYTES) {
+            name = Arrays.copyOf(name, MAX_NAME_BYTES);
+        }
+        ByteBuffer record = ByteBuffer.allocate(FIXED_RECORD_SIZE + name.length);
+        record.putInt(name.length).put(name).putInt(player.result).putLong(player.time);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Returns the length of the valid record starting at {@code at}, or -1 if
+     * it is incomplete or corrupt.
+     */
+    static int recordLength(ByteBuffer buffer, int at) {
+        if (buffer.limit() - at < FIXED_RECORD_SIZE) {
+            return -1;
+        }
+        int nameLength = buffer.getInt(at);
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES || buffer.limit() - at < FIXED_RECORD_SIZE + nameLength) {
+            return -1;
+        }
+        int checked = 4 + nameLength + 4 + 8;
+        ByteBuffer body = buffer.duplicate();
+        body.position(at).limit(at + checked);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(at + checked)) {
+            return -1;
+        }
+        return FIXED_RECORD_SIZE + nameLength;
+    }
+
+    /**
+     * Length of the corrupt record at {@code at} if it can be stepped over:
+     * its length field is plausible and a valid record follows it. Returns -1
+     * otherwise.
+     */
+    static int corruptLength(ByteBuffer buffer, int at) {
+        if (buffer.limit() - at < FIXED_RECORD_SIZE) {
+            return -1;
+        }
+        int nameLength = buffer.getInt(at);
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            return -1;
+        }
+        int length = FIXED_RECORD_SIZE + nameLength;
+        return recordLength(buffer, at + length) >= 0 ? length : -1;
+    }
+
+    static Player decode(ByteBuffer buffer, int at) {
+        int nameLength = buffer.getInt(at);
+        byte[] name = new byte[nameLength];
+        ByteBuffer body = buffer.duplicate();
+        body.position(at + 4);
+        body.get(name);
+        int result = body.getInt();
+        long time = body.getLong();
+        return new Player(new String(name, StandardCharsets.UTF_8), result, time);
+    }
+}
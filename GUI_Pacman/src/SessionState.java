@@ -0,0 +1,70 @@
+import java.util.Locale;
+
+/**
+ * What a {@link GameSession} publishes after each round of ticks: the
+ * public state of its game at that moment. Immutable, so it can be handed to
+ * other threads.
+ */
+public class SessionState {
+
+    private final int session;
+    private final long tick;
+    private final int score;
+    private final int lives;
+    private final int pacmanRow;
+    private final int pacmanCol;
+    private final Direction direction;
+    private final boolean gameOver;
+
+    SessionState(int session, GameEngine engine) {
+        this.session = session;
+        this.tick = engine.getTicks();
+        this.score = engine.getScore();
+        this.lives = engine.getLives();
+        this.pacmanRow = engine.getPacmanRow();
+        this.pacmanCol = engine.getPacmanCol();
+        this.direction = engine.getPacmanDirection();
+        this.gameOver = engine.isGameOver();
+    }
+
+    public int getSession() {
+        return session;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getPacmanRow() {
+        return pacmanRow;
+    }
+
+    public int getPacmanCol() {
+        return pacmanCol;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * One CSV line: session, tick, score, lives, row, column, direction,
+     * game over.
+     */
+    public String toCsv() {
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%s,%b",
+                session, tick, score, lives, pacmanRow, pacmanCol, direction, gameOver);
+    }
+}
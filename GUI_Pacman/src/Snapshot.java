@@ -0,0 +1,188 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Save state of a running game: configuration, seed, clock time, engine
+ * state and terrain, followed by a CRC32.
+ */
+public class Snapshot {
+
+    public static final String DIRECTORY = "saves";
+    public static final String EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x504D5353;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 2 + 4 * 8 + 8 * 2 + 4 * 2;
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private final GameEngine engine;
+    private final long clockNanos;
+
+    Snapshot(GameEngine engine, long clockNanos) {
+        this.engine = engine;
+        this.clockNanos = clockNanos;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Game clock time at the moment of the save.
+     */
+    public long getClockNanos() {
+        return clockNanos;
+    }
+
+    /**
+     * Saves to {@code saves/<seed in hex>.snapshot} and returns the path.
+     */
+    public static Path save(GameEngine engine, long clockNanos) throws IOException {
+        Path directory = Paths.get(DIRECTORY);
+        Files.createDirectories(directory);
+        Path path = directory.resolve(Long.toHexString(engine.getSeed()) + EXTENSION);
+        save(engine, clockNanos, path);
+        return path;
+    }
+
+    public static void save(GameEngine engine, long clockNanos, Path path) throws IOException {
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        write(new Parts(engine.getConfig(), engine.getSeed(), clockNanos, state.flip(), ByteBuffer.wrap(engine.terrain())), path);
+    }
+
+    /**
+     * Writes a snapshot from its parts; {@code state} is written from its
+     * position to its limit.
+     */
+    static void write(Parts parts, Path path) throws IOException {
+        GameConfig config = parts.config;
+        ByteBuffer terrain = parts.terrain.duplicate();
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + parts.state.remaining());
+        head.putInt(MAGIC);
+        head.putInt(VERSION);
+        head.putInt(config.getSize());
+        head.putInt(config.getGhosts());
+        head.putInt(config.getWallPercent());
+        head.putInt(config.getSpeedBoostMillis());
+        head.putInt(config.getInvincibleMillis());
+        head.putInt(config.getWallDestroyMillis());
+        head.putInt(config.getPowerUpPeriodMillis());
+        head.putInt(config.getGhostPeriodMillis());
+        head.putLong(parts.seed);
+        head.putLong(parts.clockNanos);
+        head.putInt(parts.state.remaining());
+        head.putInt(terrain.remaining());
+        head.put(parts.state.duplicate());
+        head.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(head.array(), 0, head.limit());
+        crc.update(terrain.duplicate());
+        ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, head);
+                while (terrain.hasRemaining()) {
+                    int chunk = Math.min(CHUNK_BYTES, terrain.remaining());
+                    writeFully(channel, terrain.slice(terrain.position(), chunk));
+                    terrain.position(terrain.position() + chunk);
+                }
+                writeFully(channel, trailer);
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static Snapshot load(Path path) throws IOException {
+        Parts parts = read(path);
+        return new Snapshot(GameEngine.restore(parts.config, parts.seed, parts.state, parts.terrain), parts.clockNanos);
+    }
+
+    /**
+     * Reads and checks a snapshot without building an engine from it.
+     */
+    static Parts read(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + 4 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not a snapshot");
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (file.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a snapshot");
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + file.getInt(4) + " in " + path);
+        }
+        int end = file.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(file.slice(0, end));
+        if ((int) crc.getValue() != file.getInt(end)) {
+            throw new IOException("Snapshot " + path + " is corrupt");
+        }
+
+        file.position(8);
+        GameConfig config = GameConfig.DEFAULT
+                .withSize(file.getInt())
+                .withGhosts(file.getInt())
+                .withWallPercent(file.getInt())
+                .withSpeedBoostMillis(file.getInt())
+                .withInvincibleMillis(file.getInt())
+                .withWallDestroyMillis(file.getInt())
+                .withPowerUpPeriodMillis(file.getInt())
+                .withGhostPeriodMillis(file.getInt());
+        long seed = file.getLong();
+        long clockNanos = file.getLong();
+        int stateBytes = file.getInt();
+        int terrainBytes = file.getInt();
+        if ((long) config.getSize() * config.getSize() != terrainBytes
+                || (long) HEADER_BYTES + stateBytes + terrainBytes != end) {
+            throw new IOException("Snapshot " + path + " has inconsistent sizes");
+        }
+        return new Parts(config, seed, clockNanos, file.slice(HEADER_BYTES, stateBytes),
+                file.slice(HEADER_BYTES + stateBytes, terrainBytes));
+    }
+
+    /**
+     * The contents of a snapshot file. After {@link #read(Path)} the buffers
+     * are views of the mapped file.
+     */
+    static class Parts {
+        final GameConfig config;
+        final long seed;
+        final long clockNanos;
+        final ByteBuffer state;
+        final ByteBuffer terrain;
+
+        Parts(GameConfig config, long seed, long clockNanos, ByteBuffer state, ByteBuffer terrain) {
+            this.config = config;
+            this.seed = seed;
+            this.clockNanos = clockNanos;
+            this.state = state;
+            this.terrain = terrain;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pre-rendered tile images for one cell size and device scale.
+ */
+public class SpriteCache {
+
+    private final BufferedImage[][] sprites = new BufferedImage[Cell.values().length][Direction.values().length];
+
+    private int cellSize = 0;
+    private double scale = 0;
+
+    public boolean ensure(int cellSize, double scale) {
+        if (this.cellSize == cellSize && this.scale == scale) {
+            return false;
+        }
+        this.cellSize = cellSize;
+        this.scale = scale;
+        for (BufferedImage[] row : sprites) {
+            Arrays.fill(row, null);
+        }
+        return true;
+    }
+
+    public BufferedImage get(Cell cell, Direction pacmanDirection) {
+        int variant = cell == Cell.PACMAN_OPEN ? pacmanDirection.ordinal() : 0;
+        BufferedImage sprite = sprites[cell.ordinal()][variant];
+        if (sprite == null) {
+            sprite = render(cell, pacmanDirection);
+            sprites[cell.ordinal()][variant] = sprite;
+        }
+        return sprite;
+    }
+
+    public void draw(Graphics g, Cell cell, Direction pacmanDirection, int x, int y) {
+        g.drawImage(get(cell, pacmanDirection), x, y, cellSize, cellSize, null);
+    }
+
+    private BufferedImage render(Cell cell, Direction pacmanDirection) {
+        int pixels = (int) Math.ceil(cellSize * scale);
+        BufferedImage sprite = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.scale(scale, scale);
+        TilePainter.paintTile(g, cell, pacmanDirection, 0, 0, cellSize);
+        g.dispose();
+        return sprite;
+    }
+}
@@ -0,0 +1,109 @@
+import java.awt.*;
+
+public class TilePainter {
+
+    public static Color backgroundOf(Cell cell) {
+        if (cell == Cell.WALL) {
+            return Color.blue;
+        } else if (cell == Cell.GHOST) {
+            return Color.RED;
+        } else {
+            return Color.black;
+        }
+    }
+
+    public static void paintTile(Graphics g, Cell cell, Direction pacmanDirection, int x, int y, int size) {
+        Color background = backgroundOf(cell);
+        g.setColor(background);
+        g.fillRect(x, y, size, size);
+
+        if (cell == Cell.PACMAN_OPEN || cell == Cell.PACMAN_CLOSED) {
+            drawPacman(g, x, y, size, background, cell == Cell.PACMAN_OPEN, pacmanDirection);
+        }
+        if (cell == Cell.GHOST) {
+            drawGhost(g, x, y, size);
+        }
+        if (GameEngine.isPowerUp(cell)) {
+            drawPowerUp(g, cell, x, y, size);
+        }
+    }
+
+    private static void drawPowerUp(Graphics g, Cell powerUp, int left, int top, int size) {
+        int diameter = size - 4;
+        int x = left + (size - diameter) / 2;
+        int y = top + (size - diameter) / 2;
+
+        switch (powerUp) {
+            case SPEED_BOOST:
+                g.setColor(Color.GREEN);
+                g.fillOval(x, y, diameter, diameter);
+                break;
+            case INVINCIBLE:
+                g.setColor(Color.CYAN);
+                g.fillOval(x, y, diameter, diameter);
+                g.setColor(Color.BLACK);
+                g.fillOval(x + diameter / 4, y + diameter / 4, diameter / 2, diameter / 2);
+                break;
+            case DESTROY_WALL:
+                g.setColor(Color.ORANGE);
+                g.fillPolygon(new int[]{x + diameter / 2, x + diameter, x + diameter / 2, x},
+                        new int[]{y, y + diameter / 2, y + diameter, y + diameter / 2}, 4);
+                break;
+            case EXTRA_LIFE:
+                g.setColor(Color.PINK);
+                g.fillRect(x + diameter / 3, y, diameter / 3, diameter);
+                g.fillRect(x, y + diameter / 3, diameter, diameter / 3);
+                break;
+            case EXTRA_SCORE:
+                g.setColor(Color.YELLOW);
+                g.fillOval(x + diameter / 6, y + diameter / 6, diameter * 2 / 3, diameter * 2 / 3);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void drawGhost(Graphics g, int left, int top, int size) {
+        int diameter = size - 2;
+        int x = left + (size - diameter) / 2;
+        int y = top + (size - diameter) / 2;
+
+        // Eyes
+        g.fillOval(x + diameter / 4, y + diameter / 4, diameter / 6, diameter / 6);
+        g.fillOval(x + diameter * 5 / 8, y + diameter / 4, diameter / 6, diameter / 6);
+
+        //Menacing grin
+        g.setColor(Color.BLACK);
+        g.drawLine(x + diameter / 4, y + diameter / 2, x + diameter / 2, y + 3 * diameter / 4);
+        g.drawLine(x + diameter / 2, y + 3 * diameter / 4, x + 3 * diameter / 4, y + diameter / 2);
+
+        //Eyebrows
+        g.drawLine(x + diameter / 4, y + diameter / 4, x + diameter / 2, y + diameter / 4);
+        g.drawLine(x + diameter / 2, y + diameter / 4, x + 3 * diameter / 4, y + diameter / 4);
+    }
+
+    private static void drawPacman(Graphics g, int left, int top, int size, Color background, boolean mouthOpen, Direction pacmanDirection) {
+        int diameter = size - 2;
+        int x = left + (size - diameter) / 2;
+        int y = top + (size - diameter) / 2;
+
+        g.setColor(Color.YELLOW);
+        g.fillOval(x, y, diameter, diameter);
+
+        if (mouthOpen) {
+            g.setColor(background);
+            int startAngle = -50;
+            int arcAngle = 120;
+
+            if (pacmanDirection == Direction.LEFT) {
+                startAngle = -245;
+            } else if (pacmanDirection == Direction.UP) {
+                startAngle = -325;
+            } else if (pacmanDirection == Direction.DOWN) {
+                startAngle = -153;
+            }
+
+            g.fillArc(x, y, diameter, diameter, startAngle, arcAngle);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Hashed timer wheel with a resolution of one tick. Scheduling, rescheduling
+ * and cancelling are O(1).
+ */
+public class TimerWheel {
+
+    public interface ExpiryHandler {
+        void expired(int timer, int payload);
+    }
+
+    private static final int NONE = -1;
+
+    private final int mask;
+    private final int[] slotHeads;
+
+    private long[] deadlines;
+    private int[] payloads;
+    private int[] next;
+    private int[] previous;
+    private int freeHead = NONE;
+    private int allocated = 0;
+    private int size = 0;
+
+    private long now = 0;
+
+    /**
+     * @param slots number of buckets, rounded up to a power of two; pick it
+     *              around the longest common timeout in ticks
+     */
+    public TimerWheel(int slots) {
+        int capacity = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        mask = capacity - 1;
+        slotHeads = new int[capacity];
+        Arrays.fill(slotHeads, NONE);
+        deadlines = new long[16];
+        payloads = new int[16];
+        next = new int[16];
+        previous = new int[16];
+    }
+
+    public long getTick() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer that expires on tick {@code deadline}, or on the next
+     * tick if that has already passed. Returns the timer's handle.
+     */
+    public int schedule(long deadline, int payload) {
+        int timer = allocate();
+        payloads[timer] = payload;
+        link(timer, Math.max(deadline, now + 1));
+        size++;
+        return timer;
+    }
+
+    public void reschedule(int timer, long deadline) {
+        unlink(timer);
+        link(timer, Math.max(deadline, now + 1));
+    }
+
+    public void cancel(int timer) {
+        unlink(timer);
+        release(timer);
+    }
+
+    public long deadlineOf(int timer) {
+        return deadlines[timer];
+    }
+
+    public int payloadOf(int timer) {
+        return payloads[timer];
+    }
+
+    /**
+     * Moves to the next tick and expires every timer due on it. Returns the
+     * number of timers that expired.
+     */
+    public int advance(ExpiryHandler handler) {
+        now++;
+        int expired = 0;
+        int timer = slotHeads[(int) (now & mask)];
+        while (timer != NONE) {
+            int following = next[timer];
+            if (deadlines[timer] <= now) {
+                int payload = payloads[timer];
+                unlink(timer);
+                release(timer);
+                handler.expired(timer, payload);
+                expired++;
+            }
+            timer = following;
+        }
+        return expired;
+    }
+
+    private void link(int timer, long deadline) {
+        deadlines[timer] = deadline;
+        int slot = (int) (deadline & mask);
+        int head = slotHeads[slot];
+        previous[timer] = NONE;
+        next[timer] = head;
+        if (head != NONE) {
+            previous[head] = timer;
+        }
+        slotHeads[slot] = timer;
+    }
+
+    private void unlink(int timer) {
+        int before = previous[timer];
+        int after = next[timer];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            slotHeads[(int) (deadlines[timer] & mask)] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int timer = freeHead;
+            freeHead = next[timer];
+            return timer;
+        }
+        if (allocated == deadlines.length) {
+            int capacity = allocated * 2;
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int timer) {
+        next[timer] = freeHead;
+        freeHead = timer;
+        size--;
+    }
+}
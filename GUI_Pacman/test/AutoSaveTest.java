@@ -0,0 +1,130 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoSaveTest {
+
+    private static final long TICK_NANOS = GameEngine.TICK_MILLIS * 1_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private static GameConfig config() {
+        return GameConfig.DEFAULT.withSize(40).withGhosts(12).withPowerUpPeriodMillis(500);
+    }
+
+    private static void play(GameEngine engine, int ticks) {
+        for (int i = 0; i < ticks && !engine.isGameOver(); i++) {
+            step(engine);
+        }
+    }
+
+    private static void step(GameEngine engine) {
+        if (engine.getTicks() % 9 == 0) {
+            engine.setDirection(Direction.values()[(int) (engine.getTicks() / 9 % 4)]);
+        }
+        engine.tick();
+    }
+
+    private static byte[] state(GameEngine engine) {
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        return state.array();
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertArrayEquals(state(expected), state(actual));
+        assertArrayEquals(expected.terrain(), actual.terrain());
+    }
+
+    @Test
+    void recoversLastCheckpoint() throws Exception {
+        GameEngine engine = new GameEngine(config(), 6);
+        Path saves = directory.resolve("autosave");
+        AutoSave autoSave = new AutoSave(engine, saves, 0, 20, 4);
+        for (int i = 0; i < 300 && !engine.isGameOver(); i++) {
+            step(engine);
+            autoSave.tick(engine.getTicks() * TICK_NANOS);
+        }
+        autoSave.checkpoint(engine.getTicks() * TICK_NANOS);
+        autoSave.close(false);
+        assertTrue(autoSave.awaitClose(10_000));
+
+        Snapshot recovered = AutoSave.recover(saves);
+        assertEquals(engine.getTicks() * TICK_NANOS, recovered.getClockNanos());
+        assertSameGame(engine, recovered.getEngine());
+    }
+
+    @Test
+    void copiesALargeTerrainOverSeveralTicks() throws Exception {
+        // Three slices, so the checkpoints taken during the copy are dropped.
+        int size = (int) Math.sqrt(2.5 * AutoSave.COPY_CELLS_PER_TICK);
+        GameEngine engine = new GameEngine(config().withSize(size), 9);
+        Path saves = directory.resolve("autosave");
+        AutoSave autoSave = new AutoSave(engine, saves, 0, 1, 4);
+        for (int i = 0; i < 6; i++) {
+            step(engine);
+            autoSave.tick(engine.getTicks() * TICK_NANOS);
+        }
+        autoSave.close(false);
+        assertTrue(autoSave.awaitClose(10_000));
+
+        Snapshot recovered = AutoSave.recover(saves);
+        assertEquals(engine.getTicks() * TICK_NANOS, recovered.getClockNanos());
+        assertSameGame(engine, recovered.getEngine());
+    }
+
+    @Test
+    void skipsTornRecord() throws Exception {
+        GameEngine engine = new GameEngine(config(), 7);
+        Path saves = directory.resolve("autosave");
+        AutoSave autoSave = new AutoSave(engine, saves, 0, 20, 100);
+        play(engine, 100);
+        autoSave.checkpoint(1);
+        GameEngine previous = Snapshot.load(save(engine)).getEngine();
+        play(engine, 20);
+        autoSave.checkpoint(2);
+        autoSave.close(false);
+        assertTrue(autoSave.awaitClose(10_000));
+
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(saves, "deltas-*")) {
+            for (Path log : logs) {
+                try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                    channel.truncate(channel.size() - 3);
+                }
+            }
+        }
+        Snapshot recovered = AutoSave.recover(saves);
+        assertEquals(1, recovered.getClockNanos());
+        assertSameGame(previous, recovered.getEngine());
+    }
+
+    @Test
+    void discardDeletesTheFiles() throws Exception {
+        GameEngine engine = new GameEngine(config(), 8);
+        Path saves = directory.resolve("autosave");
+        AutoSave autoSave = new AutoSave(engine, saves, 0, 20, 4);
+        play(engine, 100);
+        autoSave.checkpoint(1);
+        autoSave.close(true);
+        assertTrue(autoSave.awaitClose(10_000));
+        assertTrue(Files.notExists(saves));
+    }
+
+    private Path save(GameEngine engine) throws IOException {
+        Path path = directory.resolve(engine.getTicks() + Snapshot.EXTENSION);
+        Snapshot.save(engine, 0, path);
+        return path;
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardViewTest {
+
+    private static final int CELL_SIZE = 20;
+
+    /**
+     * Sizes the view and lets its resize handler run, so the camera stays
+     * where the test puts it afterwards.
+     */
+    private static BoardView sized(BoardView view) throws Exception {
+        view.setSize(view.getPreferredSize());
+        SwingUtilities.invokeAndWait(() -> { });
+        return view;
+    }
+
+    private static BufferedImage render(BoardView view) {
+        BufferedImage image = new BufferedImage(view.getWidth(), view.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        view.paint(g);
+        g.dispose();
+        return image;
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+            return false;
+        }
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void changedCellIsRedrawnInItsChunk() throws Exception {
+        GameEngine engine = new GameEngine(GameConfig.DEFAULT.withSize(20).withGhosts(3), 1);
+        BoardView view = sized(new BoardView(engine, CELL_SIZE));
+        render(view);
+
+        int row = -1;
+        int col = -1;
+        for (int i = 0; i < 400 && row < 0; i++) {
+            if (engine.getCell(i / 20, i % 20) == Cell.EMPTY) {
+                row = i / 20;
+                col = i % 20;
+            }
+        }
+        engine.setCell(row, col, Cell.WALL);
+
+        // Until it is told, the view keeps showing the cached chunk.
+        BufferedImage stale = render(view);
+        BufferedImage expected = render(sized(new BoardView(engine, CELL_SIZE)));
+        assertFalse(samePixels(expected, stale));
+
+        view.cellsChanged(row, col, col);
+        assertTrue(samePixels(expected, render(view)));
+    }
+
+    @Test
+    void leastRecentlyUsedChunksAreEvicted() throws Exception {
+        GameEngine engine = new GameEngine(GameConfig.DEFAULT.withSize(1000).withGhosts(5), 2);
+        BoardView view = sized(new BoardView(engine, CELL_SIZE));
+        render(view);
+        int bound = view.cachedChunkCount();
+
+        Camera camera = view.getCamera();
+        int side = 1000 * CELL_SIZE;
+        for (int y = 0; y < side; y += side / 8) {
+            for (int x = 0; x < side; x += side / 8) {
+                camera.centerOn(x, y, CELL_SIZE);
+                render(view);
+            }
+        }
+        assertTrue(view.cachedChunkCount() <= Math.max(bound, 64), "cached " + view.cachedChunkCount());
+
+        // An evicted chunk is rendered again when it comes back into view.
+        camera.centerOn(0, 0, CELL_SIZE);
+        BoardView fresh = sized(new BoardView(engine, CELL_SIZE));
+        fresh.getCamera().centerOn(0, 0, CELL_SIZE);
+        assertTrue(samePixels(render(fresh), render(view)));
+    }
+}
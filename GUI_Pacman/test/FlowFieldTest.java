@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlowFieldTest {
+
+    private static final int[] ROW_STEPS = {-1, 1, 0, 0};
+    private static final int[] COL_STEPS = {0, 0, -1, 1};
+
+    @Test
+    void incrementalUpdatesMatchFreshSearch() {
+        for (int trial = 0; trial < 40; trial++) {
+            SplittableRandom random = new SplittableRandom(trial);
+            Board board = new Board(5 + random.nextInt(50), 5 + random.nextInt(50));
+            for (int i = 0; i < board.size(); i++) {
+                board.setAt(i, random.nextInt(4) == 0 ? Cell.WALL : Cell.EMPTY);
+            }
+            int ghosts = 1 + random.nextInt(20);
+            int[] rows = new int[ghosts];
+            int[] cols = new int[ghosts];
+            for (int ghost = 0; ghost < ghosts; ghost++) {
+                int index = randomOpenCell(board, random);
+                rows[ghost] = board.rowOf(index);
+                cols[ghost] = board.colOf(index);
+            }
+            int source = randomOpenCell(board, random);
+            int row = board.rowOf(source);
+            int col = board.colOf(source);
+
+            FlowField field = new FlowField(board);
+            for (int step = 0; step < 100; step++) {
+                int op = random.nextInt(10);
+                if (op < 6) {
+                    int direction = random.nextInt(4);
+                    if (isOpen(board, row + ROW_STEPS[direction], col + COL_STEPS[direction])) {
+                        row += ROW_STEPS[direction];
+                        col += COL_STEPS[direction];
+                    }
+                } else if (op < 8) {
+                    for (int ghost = 0; ghost < ghosts; ghost++) {
+                        int direction = random.nextInt(4);
+                        if (isOpen(board, rows[ghost] + ROW_STEPS[direction], cols[ghost] + COL_STEPS[direction])) {
+                            rows[ghost] += ROW_STEPS[direction];
+                            cols[ghost] += COL_STEPS[direction];
+                        }
+                    }
+                } else if (op == 8) {
+                    int index = randomOpenCell(board, random);
+                    row = board.rowOf(index);
+                    col = board.colOf(index);
+                } else {
+                    int index = random.nextInt(board.size());
+                    if (index != board.index(row, col)) {
+                        board.setAt(index, board.getAt(index) == Cell.WALL ? Cell.EMPTY : Cell.WALL);
+                    }
+                }
+                field.update(row, col, rows, cols, ghosts);
+
+                int[] distances = search(board, row, col);
+                int limit = -1;
+                for (int ghost = 0; ghost < ghosts; ghost++) {
+                    limit = Math.max(limit, distances[board.index(rows[ghost], cols[ghost])]);
+                }
+                limit++;
+                for (int i = 0; i < board.size(); i++) {
+                    int expected = distances[i] < 0 || distances[i] > limit ? FlowField.UNREACHED : distances[i];
+                    assertEquals(expected, field.distance(board.rowOf(i), board.colOf(i)),
+                            "trial " + trial + ", step " + step + ", cell " + i);
+                }
+            }
+        }
+    }
+
+    private static int randomOpenCell(Board board, SplittableRandom random) {
+        int index;
+        do {
+            index = random.nextInt(board.size());
+        } while (board.getAt(index) == Cell.WALL);
+        return index;
+    }
+
+    private static boolean isOpen(Board board, int row, int col) {
+        return board.contains(row, col) && board.get(row, col) != Cell.WALL;
+    }
+
+    private static int[] search(Board board, int row, int col) {
+        int[] distances = new int[board.size()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[board.size()];
+        int head = 0;
+        int tail = 0;
+        distances[board.index(row, col)] = 0;
+        queue[tail++] = board.index(row, col);
+        while (head < tail) {
+            int current = queue[head++];
+            for (int direction = 0; direction < 4; direction++) {
+                int nextRow = board.rowOf(current) + ROW_STEPS[direction];
+                int nextCol = board.colOf(current) + COL_STEPS[direction];
+                if (isOpen(board, nextRow, nextCol) && distances[board.index(nextRow, nextCol)] < 0) {
+                    distances[board.index(nextRow, nextCol)] = distances[current] + 1;
+                    queue[tail++] = board.index(nextRow, nextCol);
+                }
+            }
+        }
+        return distances;
+    }
+}
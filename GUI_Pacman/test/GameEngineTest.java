@@ -0,0 +1,93 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GameEngineTest {
+
+    private static final int SIZE = 20;
+
+    /**
+     * An engine whose only ghost sits right of Pacman (or left, at the
+     * edge) and never moves by itself.
+     */
+    private static GameEngine besideGhost() {
+        GameConfig config = GameConfig.DEFAULT.withSize(SIZE).withGhosts(1)
+                .withGhostPeriodMillis(1_000_000).withPowerUpPeriodMillis(1_000_000);
+        GameEngine engine = new GameEngine(config, 3);
+        int row = engine.getPacmanRow();
+        int col = engine.getPacmanCol() + (engine.getPacmanCol() + 1 < SIZE ? 1 : -1);
+        engine.setCell(row, col, Cell.EMPTY);
+        Ghosts ghosts = engine.getGhosts();
+        engine.getOccupancy().move(ghosts.getRow(0) * SIZE + ghosts.getCol(0), row * SIZE + col);
+        ghosts.rows[0] = row;
+        ghosts.cols[0] = col;
+        engine.setDirection(col > engine.getPacmanCol() ? Direction.RIGHT : Direction.LEFT);
+        return engine;
+    }
+
+    private static void tick(GameEngine engine, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            engine.tick();
+        }
+    }
+
+    @Test
+    void walkingIntoGhostCostsALife() {
+        GameEngine engine = besideGhost();
+        int lives = engine.getLives();
+        tick(engine, 10);
+        assertEquals(lives - 1, engine.getLives());
+    }
+
+    @Test
+    void ghostBlocksInvinciblePacman() {
+        GameEngine engine = besideGhost();
+        engine.getEffects().apply(EffectScheduler.PACMAN, EffectType.INVINCIBLE, 1000);
+        int row = engine.getPacmanRow();
+        int col = engine.getPacmanCol();
+        int lives = engine.getLives();
+        tick(engine, 10);
+        assertEquals(lives, engine.getLives());
+        assertEquals(row, engine.getPacmanRow());
+        assertEquals(col, engine.getPacmanCol());
+        assertEquals(Cell.GHOST, engine.getCell(row, engine.getGhosts().getCol(0)));
+    }
+
+    @Test
+    void ghostsChaseAfterTheScatterWindow() {
+        GameEngine engine = new GameEngine(SIZE, 1);
+        assertEquals(GhostMode.SCATTER, engine.getGhostMode());
+        engine.skipTicks(7000 / GameEngine.TICK_MILLIS);
+        assertEquals(GhostMode.CHASE, engine.getGhostMode());
+    }
+
+    @Test
+    void ghostCountIsClampedToTheFreeCells() {
+        GameEngine engine = new GameEngine(GameConfig.DEFAULT.withSize(10).withGhosts(100000), 11);
+        int free = engine.getOccupancy().size() + freeCells(engine);
+        assertEquals(free - 1, engine.getConfig().getGhosts());
+        assertEquals(free - 1, engine.getGhosts().size());
+        assertEquals(free, engine.getOccupancy().size());
+    }
+
+    private static int freeCells(GameEngine engine) {
+        int free = 0;
+        for (int row = 0; row < engine.getRowCount(); row++) {
+            for (int col = 0; col < engine.getColumnCount(); col++) {
+                if (engine.getCell(row, col) == Cell.EMPTY) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    @Test
+    void placementFindsTheLastFreeCells() {
+        // A 3x3 board for 8 ghosts and Pacman: random picks mostly hit
+        // entities, so placement has to fall back to scanning.
+        GameEngine engine = new GameEngine(GameConfig.DEFAULT.withSize(3).withGhosts(8).withWallPercent(0), 7);
+        assertEquals(8, engine.getGhosts().size());
+        assertEquals(9, engine.getOccupancy().size());
+    }
+}
@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private ScoreStore store;
+    private final List<Player> players = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    private void fill(int records) throws IOException {
+        store = new ScoreStore(directory.resolve("score.dat"));
+        store.recover();
+        SplittableRandom random = new SplittableRandom(5);
+        List<CompletableFuture<Long>> pending = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            // Few distinct scores and times, so ties are ranked by time and
+            // then by file order.
+            Player player = new Player("p" + i, random.nextInt(300), random.nextInt(20));
+            players.add(player);
+            pending.add(store.appendAsync(player));
+        }
+        for (CompletableFuture<Long> offset : pending) {
+            offsets.add(offset.join());
+        }
+    }
+
+    /**
+     * All offsets, best first, sorted the slow way.
+     */
+    private long[] ranked() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingInt(i -> -players.get(i).result)
+                .thenComparingLong(i -> players.get(i).time)
+                .thenComparingLong(offsets::get));
+        return order.stream().mapToLong(offsets::get).toArray();
+    }
+
+    private static void assertPages(long[] expected, LeaderboardIndex index) throws IOException {
+        assertEquals(expected.length, index.getTotal());
+        for (int first = 0; first < expected.length; first += 250) {
+            long[] page = index.offsets(first, 300);
+            for (int i = 0; i < page.length; i++) {
+                assertEquals(expected[first + i], page[i], "rank " + (first + i));
+            }
+            assertEquals(Math.min(300, expected.length - first), page.length);
+        }
+    }
+
+    @Test
+    void pagesMatchFullSortAboveAndBelowTheKeptBest() throws IOException {
+        fill(3 * LeaderboardIndex.TOP_ENTRIES);
+        LeaderboardIndex index = LeaderboardIndex.open(store);
+        assertPages(ranked(), index);
+        assertEquals(1 + players.stream().filter(p -> p.result > 150).count(), index.rank(150));
+    }
+
+    @Test
+    void catchUpAppendsOnlyTheNewRecords() throws IOException {
+        fill(2 * LeaderboardIndex.TOP_ENTRIES);
+        LeaderboardIndex index = LeaderboardIndex.open(store);
+        Path file = LeaderboardIndex.pathFor(store.getPath());
+        long size = Files.size(file);
+
+        Player player = new Player("new", 1000, 0);
+        players.add(player);
+        offsets.add(store.append(player));
+        assertEquals(1, index.catchUp());
+        // One block: type, length, covered offset, count, entry and CRC.
+        assertEquals(size + 4 + 4 + 8 + 4 + 20 + 4, Files.size(file));
+        assertEquals(1, index.rank(1000));
+
+        // A second process reads the checkpoint and the appended block.
+        assertPages(ranked(), LeaderboardIndex.open(store));
+    }
+
+    @Test
+    void rebuildsAfterTheIndexIsDeleted() throws IOException {
+        fill(500);
+        LeaderboardIndex index = LeaderboardIndex.open(store);
+        Files.delete(LeaderboardIndex.pathFor(store.getPath()));
+        Player player = new Player("new", 5, 0);
+        players.add(player);
+        offsets.add(store.append(player));
+        index.catchUp();
+        assertPages(ranked(), index);
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyTest {
+
+    @Test
+    void placeMoveAndRemove() {
+        Occupancy occupancy = new Occupancy(100, 4);
+        occupancy.place(10, 0);
+        occupancy.place(20, 1);
+        assertTrue(occupancy.isOccupied(10));
+        assertEquals(1, occupancy.entityAt(20));
+        assertEquals(Occupancy.NONE, occupancy.entityAt(30));
+
+        occupancy.move(10, 30);
+        assertFalse(occupancy.isOccupied(10));
+        assertEquals(0, occupancy.entityAt(30));
+        assertThrows(IllegalStateException.class, () -> occupancy.move(30, 20));
+
+        assertEquals(1, occupancy.remove(20));
+        assertEquals(Occupancy.NONE, occupancy.remove(20));
+        assertEquals(1, occupancy.size());
+    }
+
+    @Test
+    void removeKeepsCollidingEntriesReachable() {
+        // A full table of a small board keeps long probe runs, so every
+        // remove has to shift entries back.
+        SplittableRandom random = new SplittableRandom(4);
+        int cells = 4096;
+        int capacity = 64;
+        Occupancy occupancy = new Occupancy(cells, capacity);
+        Map<Integer, Integer> expected = new HashMap<>();
+        List<Integer> occupied = new ArrayList<>();
+        for (int step = 0; step < 100000; step++) {
+            if (occupied.size() < capacity && (occupied.isEmpty() || random.nextBoolean())) {
+                int cell = random.nextInt(cells);
+                if (expected.containsKey(cell)) {
+                    continue;
+                }
+                occupancy.place(cell, step);
+                expected.put(cell, step);
+                occupied.add(cell);
+            } else {
+                int cell = occupied.remove(random.nextInt(occupied.size()));
+                assertEquals(expected.remove(cell), occupancy.remove(cell));
+            }
+            if (step % 1000 == 0) {
+                for (int cell = 0; cell < cells; cell++) {
+                    assertEquals(expected.getOrDefault(cell, Occupancy.NONE), occupancy.entityAt(cell));
+                }
+            }
+        }
+        assertEquals(expected.size(), occupancy.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), occupancy.entityAt(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RankTreeTest {
+
+    @Test
+    void emptyTree() {
+        RankTree tree = new RankTree();
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.countAbove(10));
+        assertEquals(0, tree.countBelow(10));
+    }
+
+    @Test
+    void countsMatchSortedList() {
+        SplittableRandom random = new SplittableRandom(1);
+        RankTree tree = new RankTree();
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int score = random.nextInt(-50, 500);
+            tree.add(score);
+            scores.add(score);
+            if (i % 250 == 0) {
+                for (int probe = -60; probe < 510; probe += 7) {
+                    final int p = probe;
+                    assertEquals(scores.stream().filter(s -> s > p).count(), tree.countAbove(probe));
+                    assertEquals(scores.stream().filter(s -> s < p).count(), tree.countBelow(probe));
+                }
+            }
+        }
+        assertEquals(scores.size(), tree.size());
+        assertEquals(scores.stream().distinct().count(), tree.distinctScores());
+    }
+
+    @Test
+    void scoreAtMatchesDescendingList() {
+        SplittableRandom random = new SplittableRandom(3);
+        RankTree tree = new RankTree();
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int score = random.nextInt(-20, 300);
+            tree.add(score);
+            scores.add(score);
+        }
+        scores.sort((a, b) -> Integer.compare(b, a));
+        for (int rank = 0; rank < scores.size(); rank++) {
+            assertEquals(scores.get(rank), tree.scoreAt(rank));
+        }
+        assertEquals(Integer.MIN_VALUE, tree.scoreAt(scores.size()));
+    }
+
+    @Test
+    void bulkAddAndForEachInAscendingOrder() {
+        RankTree tree = new RankTree();
+        TreeMap<Integer, Long> expected = new TreeMap<>();
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 1000; i++) {
+            int score = random.nextInt(200);
+            long count = 1 + random.nextInt(1000);
+            tree.add(score, count);
+            expected.merge(score, count, Long::sum);
+        }
+        TreeMap<Integer, Long> visited = new TreeMap<>();
+        List<Integer> order = new ArrayList<>();
+        tree.forEach((score, count) -> {
+            visited.put(score, count);
+            order.add(score);
+        });
+        assertEquals(expected, visited);
+        assertEquals(new ArrayList<>(expected.keySet()), order);
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), tree.size());
+    }
+}
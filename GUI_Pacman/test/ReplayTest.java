@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] state(GameEngine engine) {
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        return state.array();
+    }
+
+    @Test
+    void replayPlaysTheSameGame() throws IOException {
+        for (long seed = 1; seed <= 5; seed++) {
+            GameEngine engine = new GameEngine(30, 8, seed);
+            Replay replay = new Replay(30, 8, seed);
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 0; i < 3000 && !engine.isGameOver(); i++) {
+                if (random.nextInt(10) == 0) {
+                    Direction direction = Direction.values()[random.nextInt(4)];
+                    replay.record(engine.getTicks(), direction);
+                    engine.setDirection(direction);
+                }
+                engine.tick();
+            }
+            replay.finish(engine.getTicks(), engine.getScore());
+
+            Path path = directory.resolve(seed + ".replay");
+            replay.write(path);
+            Replay read = Replay.read(path);
+            assertEquals(replay.getEventCount(), read.getEventCount());
+            assertEquals(engine.getScore(), read.getFinalScore());
+
+            GameEngine played = read.play();
+            assertEquals(engine.getTicks(), played.getTicks());
+            assertEquals(engine.getScore(), played.getScore());
+            assertArrayEquals(state(engine), state(played));
+            assertArrayEquals(engine.terrain(), played.terrain());
+        }
+    }
+}
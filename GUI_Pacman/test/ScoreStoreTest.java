@@ -0,0 +1,175 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreStoreTest {
+
+    private static final int RECORDS = 10;
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private final long[] offsets = new long[RECORDS];
+
+    private void fill() throws IOException {
+        path = directory.resolve("score.dat");
+        ScoreStore store = new ScoreStore(path);
+        store.recover();
+        for (int i = 0; i < RECORDS; i++) {
+            offsets[i] = store.append(new Player("player" + i, i * 10, 1000 + i));
+        }
+    }
+
+    private void poke(long offset, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), offset);
+        }
+    }
+
+    private static List<String> names(List<Player> players) {
+        List<String> names = new ArrayList<>();
+        for (Player player : players) {
+            names.add(player.name);
+        }
+        return names;
+    }
+
+    @Test
+    void appendedRecordsReadBack() throws IOException {
+        fill();
+        ScoreStore reopened = new ScoreStore(path);
+        reopened.recover();
+        List<Player> players = reopened.readAll();
+        assertEquals(RECORDS, players.size());
+        for (int i = 0; i < RECORDS; i++) {
+            assertEquals("player" + i, players.get(i).name);
+            assertEquals(i * 10, players.get(i).result);
+            assertEquals(1000 + i, players.get(i).time);
+            assertEquals("player" + i, reopened.readAt(offsets[i]).name);
+        }
+    }
+
+    @Test
+    void corruptRecordInTheMiddleIsSkipped() throws IOException {
+        fill();
+        long size = Files.size(path);
+        poke(offsets[5] + 6, (byte) 'X');
+
+        ScoreStore store = new ScoreStore(path);
+        store.recover();
+        assertEquals(size, Files.size(path));
+        List<String> names = names(store.readAll());
+        assertEquals(RECORDS - 1, names.size());
+        assertFalse(names.contains("player5"));
+
+        store.append(new Player("after", 1, 1));
+        assertEquals("after", names(store.readAll()).get(RECORDS - 1));
+    }
+
+    @Test
+    void tornLastRecordIsTruncated() throws IOException {
+        fill();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 7);
+        }
+        ScoreStore store = new ScoreStore(path);
+        store.recover();
+        assertEquals(offsets[RECORDS - 1], Files.size(path));
+        assertEquals(RECORDS - 1, store.readAll().size());
+    }
+
+    @Test
+    void corruptLastRecordIsTruncated() throws IOException {
+        fill();
+        poke(offsets[RECORDS - 1] + 6, (byte) 'X');
+        ScoreStore store = new ScoreStore(path);
+        store.recover();
+        assertEquals(offsets[RECORDS - 1], Files.size(path));
+    }
+
+    private List<Path> quarantined() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("score.dat.corrupt-"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void tornTailIsNotQuarantined() throws IOException {
+        fill();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 7);
+        }
+        new ScoreStore(path).recover();
+        assertTrue(quarantined().isEmpty());
+    }
+
+    @Test
+    void garbledLengthBeforeValidRecordsIsQuarantined() throws IOException {
+        fill();
+        poke(offsets[4], (byte) 0x7F);
+        byte[] corrupted = Files.readAllBytes(path);
+        Files.write(LeaderboardIndex.pathFor(path), new byte[]{1});
+
+        ScoreStore store = new ScoreStore(path);
+        store.recover();
+        List<Path> aside = quarantined();
+        assertEquals(1, aside.size());
+        assertArrayEquals(corrupted, Files.readAllBytes(aside.get(0)));
+        assertFalse(Files.exists(LeaderboardIndex.pathFor(path)));
+        assertEquals(offsets[4], Files.size(path));
+        assertEquals(List.of("player0", "player1", "player2", "player3"), names(store.readAll()));
+
+        store.append(new Player("after", 1, 1));
+        assertEquals("after", names(store.readAll()).get(4));
+    }
+
+    @Test
+    void appendPastCorruptionQuarantinesIt() throws IOException {
+        fill();
+        poke(offsets[4], (byte) 0x7F);
+        ScoreStore store = new ScoreStore(path);
+
+        assertEquals(offsets[4], store.append(new Player("after", 1, 1)));
+        assertEquals(1, quarantined().size());
+        assertEquals(5, store.readAll().size());
+    }
+
+    @Test
+    void migratesLegacyScoresWithoutNames() throws IOException {
+        Path legacy = directory.resolve("score.ser");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(legacy))) {
+            out.writeObject(new Player(null, 10, 1));
+            out.writeObject(new Player("bob", 5, 2));
+        }
+        path = directory.resolve("score.dat");
+        ScoreStore store = new ScoreStore(path);
+        store.migrateFrom(legacy);
+        store.recover();
+
+        List<Player> players = store.readAll();
+        assertEquals(List.of("", "bob"), names(players));
+        assertEquals(10, players.get(0).result);
+        assertEquals(2, players.get(1).time);
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(directory.resolve("score.ser.migrated")));
+        assertFalse(Files.exists(directory.resolve("score.dat.tmp")));
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static GameConfig config() {
+        return GameConfig.DEFAULT.withSize(40).withGhosts(12).withPowerUpPeriodMillis(500);
+    }
+
+    private static void play(GameEngine engine, int ticks) {
+        for (int i = 0; i < ticks && !engine.isGameOver(); i++) {
+            step(engine);
+        }
+    }
+
+    private static void step(GameEngine engine) {
+        if (engine.getTicks() % 9 == 0) {
+            engine.setDirection(Direction.values()[(int) (engine.getTicks() / 9 % 4)]);
+        }
+        engine.tick();
+    }
+
+    private static byte[] state(GameEngine engine) {
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        return state.array();
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertArrayEquals(state(expected), state(actual));
+        assertArrayEquals(expected.terrain(), actual.terrain());
+    }
+
+    @Test
+    void saveAndLoadRoundTrip() throws IOException {
+        GameEngine engine = new GameEngine(config(), 5);
+        play(engine, 700);
+        Path path = directory.resolve("game" + Snapshot.EXTENSION);
+        Snapshot.save(engine, 12345, path);
+
+        Snapshot snapshot = Snapshot.load(path);
+        assertEquals(12345, snapshot.getClockNanos());
+        GameEngine loaded = snapshot.getEngine();
+        assertSameGame(engine, loaded);
+
+        // The restored game goes on exactly like the original.
+        for (int i = 0; i < 500; i++) {
+            step(engine);
+            step(loaded);
+        }
+        assertSameGame(engine, loaded);
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void expiresOnDeadline() {
+        TimerWheel wheel = new TimerWheel(8);
+        wheel.schedule(3, 42);
+        List<Integer> expired = new ArrayList<>();
+        for (int tick = 1; tick <= 3; tick++) {
+            wheel.advance((timer, payload) -> expired.add(payload));
+            assertEquals(tick < 3 ? List.of() : List.of(42), expired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersBeyondOneRevolutionWait() {
+        TimerWheel wheel = new TimerWheel(4);
+        wheel.schedule(2, 1);
+        wheel.schedule(6, 2);
+        wheel.schedule(10, 3);
+        List<Long> expiredAt = new ArrayList<>();
+        for (int tick = 0; tick < 12; tick++) {
+            wheel.advance((timer, payload) -> expiredAt.add(wheel.getTick()));
+        }
+        assertEquals(List.of(2L, 6L, 10L), expiredAt);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextTick() {
+        TimerWheel wheel = new TimerWheel(8);
+        for (int i = 0; i < 5; i++) {
+            wheel.advance((timer, payload) -> { });
+        }
+        int timer = wheel.schedule(1, 7);
+        assertEquals(6, wheel.deadlineOf(timer));
+        assertEquals(1, wheel.advance((t, payload) -> assertEquals(7, payload)));
+    }
+
+    @Test
+    void rescheduleAndCancel() {
+        TimerWheel wheel = new TimerWheel(8);
+        int moved = wheel.schedule(2, 1);
+        int cancelled = wheel.schedule(3, 2);
+        wheel.reschedule(moved, 20);
+        wheel.cancel(cancelled);
+        assertEquals(1, wheel.size());
+        List<Long> expiredAt = new ArrayList<>();
+        for (int tick = 0; tick < 25; tick++) {
+            wheel.advance((timer, payload) -> {
+                assertEquals(1, payload);
+                expiredAt.add(wheel.getTick());
+            });
+        }
+        assertEquals(List.of(20L), expiredAt);
+    }
+
+    @Test
+    void randomOperationsMatchModel() {
+        SplittableRandom random = new SplittableRandom(3);
+        TimerWheel wheel = new TimerWheel(16);
+        Map<Integer, Long> live = new HashMap<>();
+        int nextPayload = 0;
+        for (int step = 0; step < 20000; step++) {
+            int op = random.nextInt(4);
+            if (op == 0 || live.isEmpty()) {
+                long deadline = wheel.getTick() + random.nextInt(1, 100);
+                int timer = wheel.schedule(deadline, nextPayload++);
+                live.put(timer, deadline);
+            } else if (op == 1) {
+                int timer = live.keySet().iterator().next();
+                long deadline = wheel.getTick() + random.nextInt(1, 100);
+                wheel.reschedule(timer, deadline);
+                live.put(timer, deadline);
+            } else if (op == 2) {
+                int timer = live.keySet().iterator().next();
+                wheel.cancel(timer);
+                live.remove(timer);
+            } else {
+                wheel.advance((timer, payload) -> {
+                    Long deadline = live.remove(timer);
+                    assertEquals(wheel.getTick(), deadline);
+                });
+                long now = wheel.getTick();
+                assertTrue(live.values().stream().allMatch(deadline -> deadline > now));
+            }
+            assertEquals(live.size(), wheel.size());
+        }
+    }
+}